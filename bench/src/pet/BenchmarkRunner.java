@@ -0,0 +1,31 @@
+package pet;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the pet benchmarks with the GC profiler, so that the allocation rate
+ * of every hot path is reported next to its score. The forked JVMs load the
+ * Vector API, so population benchmarks use the SIMD decay kernel unless
+ * {@code -Dpet.simd=false} is passed as well.
+ */
+public class BenchmarkRunner {
+  /**
+   * Runs every benchmark whose name matches the given pattern.
+   *
+   * @param args an optional regular expression selecting benchmarks
+   * @throws RunnerException if JMH fails to run the benchmarks
+   */
+  public static void main(String[] args) throws RunnerException {
+    String include = args.length > 0 ? args[0] : "pet\\..*Benchmark.*";
+    Options options = new OptionsBuilder()
+        .include(include)
+        .addProfiler(GCProfiler.class)
+        .jvmArgsAppend("--add-modules", "jdk.incubator.vector")
+        .build();
+    new Runner(options).run();
+  }
+}
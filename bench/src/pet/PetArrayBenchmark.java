@@ -0,0 +1,138 @@
+package pet;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of stepping many pets at once, with a configurable share of sad
+ * and sleeping pets. Each operation revives and steps every pet, and the
+ * score is reported per pet.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PetArrayBenchmark {
+  private static final int SIZE = 100_000;
+
+  // Share of pets that are sad, from 0 to 100
+  @Param({"0", "50", "100"})
+  public int sadPercent;
+
+  // Share of pets that are sleeping, from 0 to 100
+  @Param({"0", "50"})
+  public int sleepingPercent;
+
+  private Pet[] pets;
+  private HealthStatus[] starts;
+  private MoodEnum[] moods;
+  private PetState[] states;
+  private PetPopulation population;
+  // A column of random actions on random pets, one per pet on average
+  private int[] actionIds;
+  private byte[] actionOrdinals;
+
+  /**
+   * Creates the pets, shuffling moods and states so that branches are not predictable.
+   */
+  @Setup
+  public void setUp() {
+    Random random = new Random(7);
+    pets = new Pet[SIZE];
+    starts = new HealthStatus[SIZE];
+    moods = new MoodEnum[SIZE];
+    states = new PetState[SIZE];
+    population = new PetPopulation(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      pets[i] = new Pet();
+      starts[i] = new HealthStatus(10 + random.nextInt(30), 60 + random.nextInt(30),
+          10 + random.nextInt(30), 60 + random.nextInt(30));
+      moods[i] = random.nextInt(100) < sadPercent ? MoodEnum.SAD : MoodEnum.HAPPY;
+      states[i] = random.nextInt(100) < sleepingPercent ? PetState.Sleeping : PetState.Active;
+    }
+    actionIds = new int[SIZE];
+    actionOrdinals = new byte[SIZE];
+    for (int k = 0; k < SIZE; k++) {
+      actionIds[k] = random.nextInt(SIZE);
+      actionOrdinals[k] = (byte) random.nextInt(Action.values().length);
+    }
+  }
+
+  private void revive(int i) {
+    Pet pet = pets[i];
+    pet.setHealth(starts[i]);
+    pet.setState(states[i]);
+    pet.setMood(moods[i]);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public Pet[] stepPets() {
+    for (int i = 0; i < SIZE; i++) {
+      revive(i);
+      pets[i].step();
+    }
+    return pets;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public Pet[] interactWithPets() {
+    for (int i = 0; i < SIZE; i++) {
+      revive(i);
+      pets[i].interactWith(Action.CLEAN);
+    }
+    return pets;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public PetPopulation stepPopulation() {
+    revivePopulation();
+    population.stepAll();
+    return population;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public Pet[] interactWithActionColumn() {
+    Action[] actions = Action.values();
+    for (int i = 0; i < SIZE; i++) {
+      revive(i);
+    }
+    for (int k = 0; k < SIZE; k++) {
+      pets[actionIds[k]].interactWith(actions[actionOrdinals[k]]);
+    }
+    return pets;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public PetPopulation applyActionColumn() {
+    revivePopulation();
+    population.applyActions(actionIds, actionOrdinals);
+    return population;
+  }
+
+  private void revivePopulation() {
+    for (int i = 0; i < SIZE; i++) {
+      population.setHealth(i, starts[i]);
+      population.setState(i, states[i]);
+      population.setMood(i, moods[i]);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package pet;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-pet latency of the simulation hot paths.
+ * Every benchmark first puts the pet back into a living mid-range state,
+ * so that it never dies and the measured path stays the same.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PetHotPathBenchmark {
+  private static final HealthStatus START = new HealthStatus(20, 80, 20, 80);
+  private static final NeedLimits LIMITS = NeedConfig.HUNGER;
+  private static final Need[] NEEDS = Need.values();
+
+  @Param({"HAPPY", "SAD"})
+  public MoodEnum mood;
+
+  private Pet pet;
+  private int value;
+  private final int[] needs = new int[Need.COUNT];
+
+  /**
+   * Creates the pet under test.
+   */
+  @Setup
+  public void setUp() {
+    pet = new Pet();
+    value = 42;
+  }
+
+  // Puts the pet back into the starting state without allocating
+  private void revive() {
+    pet.setHealth(START);
+    pet.setState(PetState.Active);
+    pet.setMood(mood);
+  }
+
+  @Benchmark
+  public Pet step() {
+    revive();
+    pet.step();
+    return pet;
+  }
+
+  @Benchmark
+  public Pet interactWithFeed() {
+    revive();
+    pet.interactWith(Action.FEED);
+    return pet;
+  }
+
+  @Benchmark
+  public Pet interactWithPlay() {
+    revive();
+    pet.interactWith(Action.PLAY);
+    return pet;
+  }
+
+  @Benchmark
+  public Pet updateMood() {
+    revive();
+    pet.updateMood();
+    return pet;
+  }
+
+  @Benchmark
+  public HealthStatus applyDecay() {
+    return PetUtils.applyDecay(START, HappyMood.DECAY);
+  }
+
+  @Benchmark
+  public int[] applyDecayInPlace() {
+    for (Need need : NEEDS) {
+      needs[need.ordinal()] = START.get(need);
+    }
+    PetUtils.applyDecay(needs, HappyMood.DECAY);
+    return needs;
+  }
+
+  @Benchmark
+  public int clamp() {
+    return PetUtils.clamp(value, LIMITS);
+  }
+}
@@ -0,0 +1,64 @@
+import controller.DashboardController;
+import java.util.Random;
+import javax.swing.SwingUtilities;
+import pet.HealthStatus;
+import pet.PetPopulation;
+import view.PetDashboard;
+import view.PopulationTableModel;
+
+/**
+ * The DashboardMain class opens the operator dashboard on a population of pets
+ * with random needs.
+ */
+public class DashboardMain {
+  private static final String USAGE = "Usage: java -cp pet.jar DashboardMain"
+      + " [--pets N] [--seed S]";
+
+  /**
+   * Opens the dashboard described by the arguments.
+   *
+   * @param args the options of the dashboard
+   */
+  public static void main(String[] args) {
+    int pets = 100_000;
+    long seed = 42;
+    try {
+      for (int i = 0; i < args.length; i += 2) {
+        if (i + 1 >= args.length) {
+          throw new IllegalArgumentException("Missing value for " + args[i]);
+        }
+        String value = args[i + 1];
+        switch (args[i]) {
+          case "--pets":
+            pets = Integer.parseInt(value);
+            break;
+          case "--seed":
+            seed = Long.parseLong(value);
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown option: " + args[i]);
+        }
+      }
+      if (pets < 0) {
+        throw new IllegalArgumentException("Invalid number of pets: " + pets);
+      }
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+    }
+
+    PetPopulation population = new PetPopulation(pets);
+    Random random = new Random(seed);
+    for (int i = 0; i < pets; i++) {
+      population.setHealth(i, new HealthStatus(random.nextInt(50), 50 + random.nextInt(51),
+          random.nextInt(50), 50 + random.nextInt(51)));
+    }
+    SwingUtilities.invokeLater(() -> {
+      PopulationTableModel model = new PopulationTableModel();
+      PetDashboard dashboard = new PetDashboard(model);
+      new DashboardController(population, dashboard, model);
+      dashboard.setVisible(true);
+    });
+  }
+}
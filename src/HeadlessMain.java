@@ -0,0 +1,88 @@
+import controller.ActionScript;
+import controller.BatchReport;
+import controller.BatchRunner;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import pet.MetricsReporter;
+import pet.PetMetrics;
+
+/**
+ * The HeadlessMain class runs a batch simulation without the user interface.
+ * It is meant for capacity planning and long soak runs.
+ */
+public class HeadlessMain {
+  private static final String USAGE = "Usage: java -cp pet.jar HeadlessMain"
+      + " [--pets N] [--ticks M] [--threads T]"
+      + " [--script FILE | --rate P] [--seed S] [--metrics SECONDS]";
+
+  /**
+   * Runs the batch simulation described by the arguments and prints its report.
+   * Without a script, each pet gets a random action with probability {@code --rate}
+   * on every tick. With {@code --metrics}, metrics are exported through JMX, printed
+   * to the standard error at that period and once more after the report.
+   *
+   * @param args the options of the run
+   */
+  public static void main(String[] args) {
+    int pets = 10_000;
+    long ticks = 1_000;
+    int threads = Runtime.getRuntime().availableProcessors();
+    double rate = 0.5;
+    long seed = 42;
+    String script = null;
+    long metricsPeriod = 0;
+    try {
+      for (int i = 0; i < args.length; i += 2) {
+        if (i + 1 >= args.length) {
+          throw new IllegalArgumentException("Missing value for " + args[i]);
+        }
+        String value = args[i + 1];
+        switch (args[i]) {
+          case "--pets":
+            pets = Integer.parseInt(value);
+            break;
+          case "--ticks":
+            ticks = Long.parseLong(value);
+            break;
+          case "--threads":
+            threads = Integer.parseInt(value);
+            break;
+          case "--rate":
+            rate = Double.parseDouble(value);
+            break;
+          case "--seed":
+            seed = Long.parseLong(value);
+            break;
+          case "--script":
+            script = value;
+            break;
+          case "--metrics":
+            metricsPeriod = Long.parseLong(value);
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown option: " + args[i]);
+        }
+      }
+      ActionScript actions = script == null
+          ? ActionScript.random(seed, rate) : ActionScript.load(Path.of(script));
+      PetMetrics metrics = null;
+      MetricsReporter reporter = null;
+      if (metricsPeriod > 0) {
+        metrics = PetMetrics.enable();
+        metrics.registerMBean();
+        reporter = new MetricsReporter(metrics, System.err, metricsPeriod, TimeUnit.SECONDS);
+      }
+      BatchReport report = new BatchRunner(pets, actions, threads).run(ticks);
+      System.out.print(report);
+      if (reporter != null) {
+        reporter.close();
+        System.err.print(metrics.getReport());
+      }
+    } catch (IllegalArgumentException | IOException e) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+    }
+  }
+}
@@ -1,5 +1,8 @@
 import controller.PetController;
+import java.util.concurrent.TimeUnit;
+import pet.MetricsReporter;
 import pet.Pet;
+import pet.PetMetrics;
 import view.PetView;
 
 /**
@@ -11,10 +14,18 @@ public class MyPetMain {
    * The main method initializes the application.
    * It creates a Pet object, a PetView object, and a PetController object.
    * It sets up the initial state of the view and makes it visible.
+   * With {@code -Dpet.metrics=SECONDS}, metrics are exported through JMX and printed
+   * to the standard error at that period.
    *
    * @param args Command line arguments (not used).
    */
   public static void main(String[] args) {
+    long metricsPeriod = Long.getLong("pet.metrics", 0);
+    if (metricsPeriod > 0) {
+      PetMetrics metrics = PetMetrics.enable();
+      metrics.registerMBean();
+      new MetricsReporter(metrics, System.err, metricsPeriod, TimeUnit.SECONDS);
+    }
     javax.swing.SwingUtilities.invokeLater(() -> {
       Pet pet = new Pet();
       PetView view = new PetView();
@@ -0,0 +1,94 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import pet.Action;
+
+/**
+ * Decides which actions are applied to each pet on each tick of a batch run.
+ */
+public interface ActionScript {
+  Action[] NONE = new Action[0];
+
+  /**
+   * Returns the actions to apply to a pet before it is stepped.
+   * Implementations return shared arrays, which callers must not modify.
+   *
+   * @param tick  the current tick
+   * @param petId the index of the pet
+   * @return the actions, in order
+   */
+  Action[] actionsAt(long tick, int petId);
+
+  /**
+   * Creates a script that gives each pet one uniformly chosen action with the
+   * given probability on every tick.
+   *
+   * @param seed the random seed, so that runs can be repeated
+   * @param rate the probability that a pet gets an action on a tick
+   * @return the script
+   */
+  static ActionScript random(long seed, double rate) {
+    if (rate < 0 || rate > 1) {
+      throw new IllegalArgumentException("Invalid interaction rate: " + rate);
+    }
+    Action[] actions = Action.values();
+    Action[][] single = new Action[actions.length][];
+    for (int i = 0; i < actions.length; i++) {
+      single[i] = new Action[] {actions[i]};
+    }
+    SplittableRandom random = new SplittableRandom(seed);
+    return (tick, petId) -> random.nextDouble() < rate
+        ? single[random.nextInt(actions.length)] : NONE;
+  }
+
+  /**
+   * Creates a script that applies the same actions to every pet, one line per
+   * tick, starting over after the last line.
+   *
+   * @param lines the actions of each tick
+   * @return the script
+   */
+  static ActionScript cycle(List<Action[]> lines) {
+    if (lines.isEmpty()) {
+      throw new IllegalArgumentException("Empty action script");
+    }
+    Action[][] ticks = lines.toArray(new Action[0][]);
+    return (tick, petId) -> ticks[(int) (tick % ticks.length)];
+  }
+
+  /**
+   * Reads a script file. Each line lists the actions applied to every pet on
+   * one tick, separated by spaces, such as {@code FEED PLAY}. A line with only
+   * {@code -} applies no action, and lines starting with {@code #} are ignored.
+   *
+   * @param path the script file
+   * @return the script
+   * @throws IOException if the file cannot be read
+   */
+  static ActionScript load(Path path) throws IOException {
+    List<Action[]> lines = new ArrayList<>();
+    for (String line : Files.readAllLines(path)) {
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      if (trimmed.equals("-")) {
+        lines.add(NONE);
+        continue;
+      }
+      String[] tokens = trimmed.split("\\s+");
+      Action[] actions = new Action[tokens.length];
+      for (int i = 0; i < tokens.length; i++) {
+        actions[i] = Action.valueOf(tokens[i].toUpperCase(Locale.ROOT));
+      }
+      lines.add(actions);
+    }
+    return cycle(lines);
+  }
+}
@@ -0,0 +1,67 @@
+package controller;
+
+import java.util.EnumMap;
+import java.util.Map;
+import pet.MoodEnum;
+import pet.PetState;
+
+/**
+ * Represents the outcome of a headless batch run.
+ *
+ * @param pets         the number of pets
+ * @param ticks        the number of ticks run
+ * @param interactions the number of actions applied
+ * @param elapsedNanos the wall-clock time of the run
+ * @param deaths       the number of pets that died during the run
+ * @param moods        the number of living pets in each mood at the end
+ * @param states       the number of pets in each state at the end
+ */
+public record BatchReport(int pets, long ticks, long interactions, long elapsedNanos,
+                          int deaths, Map<MoodEnum, Integer> moods,
+                          Map<PetState, Integer> states) {
+
+  /**
+   * Copies the distributions, so that the report cannot change.
+   */
+  public BatchReport {
+    moods = Map.copyOf(new EnumMap<>(moods));
+    states = Map.copyOf(new EnumMap<>(states));
+  }
+
+  public double ticksPerSecond() {
+    return perSecond(ticks);
+  }
+
+  public double interactionsPerSecond() {
+    return perSecond(interactions);
+  }
+
+  public double petStepsPerSecond() {
+    return perSecond((double) ticks * pets);
+  }
+
+  private double perSecond(double count) {
+    return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("Pets:               %,d%n", pets));
+    report.append(String.format("Ticks:              %,d%n", ticks));
+    report.append(String.format("Interactions:       %,d%n", interactions));
+    report.append(String.format("Elapsed:            %.3f s%n", elapsedNanos / 1e9));
+    report.append(String.format("Ticks/sec:          %,.1f%n", ticksPerSecond()));
+    report.append(String.format("Pet steps/sec:      %,.0f%n", petStepsPerSecond()));
+    report.append(String.format("Interactions/sec:   %,.0f%n", interactionsPerSecond()));
+    report.append(String.format("Deaths:             %,d%n", deaths));
+    for (MoodEnum mood : MoodEnum.values()) {
+      report.append(String.format("Mood %-14s%,d%n", mood + ":", moods.getOrDefault(mood, 0)));
+    }
+    for (PetState state : PetState.values()) {
+      report.append(String.format("State %-13s%,d%n", state + ":",
+          states.getOrDefault(state, 0)));
+    }
+    return report.toString();
+  }
+}
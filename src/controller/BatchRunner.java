@@ -0,0 +1,119 @@
+package controller;
+
+import java.util.EnumMap;
+import java.util.Map;
+import pet.Action;
+import pet.MoodEnum;
+import pet.Pet;
+import pet.PetMetrics;
+import pet.PetState;
+import pet.PopulationTicker;
+
+/**
+ * Drives many pets through scripted or random actions without a user interface.
+ * On every tick, each living pet first gets the actions of the script, then
+ * all pets are stepped.
+ */
+public class BatchRunner {
+  private static final Action[] ACTIONS = Action.values();
+  private final Pet[] pets;
+  private final ActionScript script;
+  private final int parallelism;
+
+  /**
+   * Constructs a runner for new pets.
+   *
+   * @param petCount    the number of pets
+   * @param script      the actions to apply
+   * @param parallelism the number of threads stepping pets
+   */
+  public BatchRunner(int petCount, ActionScript script, int parallelism) {
+    if (petCount < 0) {
+      throw new IllegalArgumentException("Invalid number of pets: " + petCount);
+    }
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+    }
+    this.pets = new Pet[petCount];
+    for (int i = 0; i < petCount; i++) {
+      pets[i] = new Pet();
+    }
+    this.script = script;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Runs the given number of ticks and reports what happened.
+   *
+   * @param ticks the number of ticks
+   * @return the report of the run
+   */
+  public BatchReport run(long ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Invalid number of ticks: " + ticks);
+    }
+    int aliveBefore = countAlive();
+    long interactions = 0;
+    // interactions of each kind since the metrics were last updated
+    long[] counted = new long[ACTIONS.length];
+    long start = System.nanoTime();
+    try (PopulationTicker ticker = new PopulationTicker(parallelism,
+        PopulationTicker.DEFAULT_CHUNK_SIZE)) {
+      for (long tick = 0; tick < ticks; tick++) {
+        for (int id = 0; id < pets.length; id++) {
+          Pet pet = pets[id];
+          if (pet.isDead()) {
+            continue;
+          }
+          for (Action action : script.actionsAt(tick, id)) {
+            // a pet that died from an earlier action ignores the rest
+            if (pet.isDead()) {
+              break;
+            }
+            pet.interactWith(action);
+            counted[action.ordinal()]++;
+            interactions++;
+          }
+        }
+        countInteractions(counted);
+        ticker.tick(pets);
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+
+    Map<MoodEnum, Integer> moods = new EnumMap<>(MoodEnum.class);
+    Map<PetState, Integer> states = new EnumMap<>(PetState.class);
+    for (Pet pet : pets) {
+      states.merge(pet.getState(), 1, Integer::sum);
+      if (!pet.isDead()) {
+        moods.merge(pet.getMood(), 1, Integer::sum);
+      }
+    }
+    return new BatchReport(pets.length, ticks, interactions, elapsed,
+        aliveBefore - countAlive(), moods, states);
+  }
+
+  private static void countInteractions(long[] counted) {
+    PetMetrics metrics = PetMetrics.active();
+    for (Action action : ACTIONS) {
+      if (metrics != null && counted[action.ordinal()] > 0) {
+        metrics.countInteractions(action, counted[action.ordinal()]);
+      }
+      counted[action.ordinal()] = 0;
+    }
+  }
+
+  private int countAlive() {
+    int alive = 0;
+    for (Pet pet : pets) {
+      if (!pet.isDead()) {
+        alive++;
+      }
+    }
+    return alive;
+  }
+
+  public Pet[] getPets() {
+    return pets;
+  }
+}
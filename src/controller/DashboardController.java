@@ -0,0 +1,63 @@
+package controller;
+
+import pet.PetPopulation;
+import pet.PopulationTicker;
+import view.PetDashboard;
+import view.PopulationTableModel;
+
+/**
+ * Steps a population of pets and keeps a {@link PetDashboard} up to date.
+ * The population is stepped and copied on the clock thread only, so the
+ * dashboard never sees it half-stepped.
+ */
+public class DashboardController implements AutoCloseable {
+  private static final double TICKS_PER_SECOND = 1.0;
+  private final PetPopulation population;
+  private final PopulationTableModel model;
+  private final PopulationTicker ticker;
+  private final TickScheduler clock;
+  // Only touched on the clock thread
+  private long tick;
+
+  /**
+   * Constructs a controller for the given population.
+   *
+   * @param population the pets to step. Only the clock thread uses them afterwards.
+   * @param dashboard  the dashboard to update
+   * @param model      the table model shown by the dashboard
+   */
+  public DashboardController(PetPopulation population, PetDashboard dashboard,
+                             PopulationTableModel model) {
+    this.population = population;
+    this.model = model;
+    this.ticker = new PopulationTicker();
+    this.clock = new TickScheduler(TICKS_PER_SECOND, this::advance);
+
+    dashboard.getAutoButton().addActionListener(e -> {
+      if (dashboard.getAutoButton().isSelected()) {
+        clock.resume();
+      } else {
+        clock.pause();
+      }
+    });
+    model.capture(population, tick);
+  }
+
+  // Called on the clock thread, with every tick that is due in one batch
+  private void advance(long ticks) {
+    for (long i = 0; i < ticks; i++) {
+      ticker.tick(population);
+    }
+    tick += ticks;
+    model.capture(population, tick);
+  }
+
+  /**
+   * Stops the clock and the threads stepping the pets.
+   */
+  @Override
+  public void close() {
+    clock.close();
+    ticker.close();
+  }
+}
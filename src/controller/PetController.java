@@ -1,27 +1,39 @@
 package controller;
 
 import pet.Action;
-import pet.HealthStatus;
 import pet.Pet;
+import pet.PetMetrics;
+import pet.PetSnapshot;
 import view.PetView;
 
 /**
  * The PetController class is responsible for handling user interactions with the pet.
  * It updates the pet's state and the view accordingly.
+ * The pet lives on a {@link PetSimulation} thread: buttons only queue commands, and
+ * the view is refreshed from the snapshots the simulation publishes, through a
+ * {@link ViewRenderer} at most once per frame. Neither input handling nor painting
+ * ever waits for the simulation.
  */
 public class PetController {
-  private final Pet pet;
+  // One tick per second at 1x, up to a thousand per second at the highest speed
+  private static final double TICKS_PER_SECOND = 1.0;
+  private static final String TICK_MSG = "Time is passing. Your pet's needs are changing.";
   private final PetView view;
+  private final TickScheduler clock;
+  private final ViewRenderer renderer;
+  private final PetSimulation simulation;
 
   /**
    * Constructor for the PetController class.
    *
-   * @param pet  The pet object to be controlled.
+   * @param pet  The pet object to be controlled. Only the simulation thread uses it afterwards.
    * @param view The view object to be updated.
    */
   public PetController(Pet pet, PetView view) {
-    this.pet = pet;
     this.view = view;
+    this.renderer = new ViewRenderer(view);
+    this.simulation = new PetSimulation(pet, TICK_MSG, this::updateView);
+    this.clock = new TickScheduler(TICKS_PER_SECOND, simulation::advance);
 
     // Attach action listeners to buttons
     view.getFeedButton().addActionListener(e -> handleInteraction(Action.FEED));
@@ -29,46 +41,61 @@ public class PetController {
     view.getCleanButton().addActionListener(e -> handleInteraction(Action.CLEAN));
     view.getSleepButton().addActionListener(e -> handleInteraction(Action.SLEEP));
     view.getStepButton().addActionListener(e -> stepGame());
+    view.getAutoButton().addActionListener(e -> toggleClock());
+    view.getSpeedBox().addActionListener(e -> clock.setSpeed(view.getSelectedSpeed()));
 
-    updateView("Your pet is excited to see you!");
+    updateView(simulation.getSnapshot(), "Your pet is excited to see you!");
   }
 
   private void handleInteraction(Action action) {
-    pet.interactWith(action);
-    String actionMsg = "You " + action.name().toLowerCase() + " your pet.";
-    if (pet.isSleeping()) {
-      updateView("Your pet is snoozing hard! ");
-    } else if (action == Action.SLEEP && pet.isJustWokeUp()) {
-      updateView(
-          "Your pet just woke up! ");
-    } else if (pet.isHungryWarning() && action != Action.FEED) {
-      updateView("Your pet is very hungry! Feed it soon!");
-    } else {
-      updateView(actionMsg);
-    }
+    simulation.submit(pet -> {
+      pet.interactWith(action);
+      PetMetrics metrics = PetMetrics.active();
+      if (metrics != null) {
+        metrics.countInteractions(action, 1);
+      }
+      String actionMsg = "You " + action.name().toLowerCase() + " your pet.";
+      if (pet.isSleeping()) {
+        return "Your pet is snoozing hard! ";
+      } else if (action == Action.SLEEP && pet.isJustWokeUp()) {
+        return "Your pet just woke up! ";
+      } else if (pet.isHungryWarning() && action != Action.FEED) {
+        return "Your pet is very hungry! Feed it soon!";
+      } else {
+        return actionMsg;
+      }
+    });
   }
 
   private void stepGame() {
-    pet.step();
-    String stepMsg = "Time has passed. Your pet's needs have changed.";
-    updateView(stepMsg);
+    simulation.submit(pet -> {
+      boolean alive = !pet.isDead();
+      pet.step();
+      PetMetrics metrics = PetMetrics.active();
+      if (metrics != null && alive) {
+        metrics.countTicks(1);
+      }
+      return "Time has passed. Your pet's needs have changed.";
+    });
+  }
+
+  private void toggleClock() {
+    if (view.getAutoButton().isSelected()) {
+      clock.setSpeed(view.getSelectedSpeed());
+      clock.resume();
+    } else {
+      clock.pause();
+    }
   }
 
-  private void updateView(String basicMessage) {
+  // Called on the simulation thread after every change to the pet
+  private void updateView(PetSnapshot snapshot, String basicMessage) {
     String messageToShow = basicMessage;
-    HealthStatus health = pet.getHealth();
-    view.updateNeedPanels(
-        health.getHunger(),
-        health.getHygiene(),
-        health.getSocial(),
-        health.getSleep()
-    );
-    view.setMood(pet.getMood().name());
-    if (pet.isDead()) {
-      view.setPetDead();
+    if (snapshot.isDead()) {
+      clock.pause();
       messageToShow = "Your pet has gone to the great beyond...";
     }
-    view.updateStatus(messageToShow);
+    renderer.submit(PetViewModel.of(snapshot, messageToShow));
   }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package controller;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import pet.Pet;
+import pet.PetMetrics;
+import pet.PetSnapshot;
+
+/**
+ * Runs a pet on its own thread and publishes immutable snapshots of it.
+ *
+ * <p>Only the simulation thread ever touches the pet. Other threads submit
+ * commands, which are queued, and ticks, which are added to a counter so
+ * that any number of ticks arriving while the pet is busy are applied in a
+ * single {@link Pet#advance(long)} call. After every change the simulation
+ * publishes a new {@link PetSnapshot}, which readers take without locking.
+ */
+public class PetSimulation implements AutoCloseable {
+  private final Pet pet;
+  private final String tickMessage;
+  private final Listener listener;
+  private final BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+  private final AtomicLong pendingTicks = new AtomicLong();
+  private final AtomicReference<PetSnapshot> latest;
+  private final Thread thread;
+  private volatile boolean closed;
+
+  /**
+   * Receives every snapshot published by the simulation.
+   */
+  public interface Listener {
+    /**
+     * Called on the simulation thread after each change to the pet.
+     *
+     * @param snapshot the new state of the pet
+     * @param message  a description of what happened
+     */
+    void published(PetSnapshot snapshot, String message);
+  }
+
+  /**
+   * Constructs a simulation of the given pet and starts its thread.
+   * The pet must not be used by any other thread afterwards.
+   *
+   * @param pet         the pet to simulate
+   * @param tickMessage the message published after time has passed
+   * @param listener    the receiver of snapshots
+   */
+  public PetSimulation(Pet pet, String tickMessage, Listener listener) {
+    this.pet = pet;
+    this.tickMessage = tickMessage;
+    this.listener = listener;
+    this.latest = new AtomicReference<>(PetSnapshot.of(pet));
+    this.thread = new Thread(this::runLoop, "pet-simulation");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Queues a change to the pet. The command runs on the simulation thread,
+   * and its result is published with the snapshot that follows it.
+   * An exception thrown by the command or the listener is reported to the
+   * uncaught exception handler of the thread, which then runs the next command.
+   *
+   * @param command the change to apply, returning the message to publish
+   */
+  public void submit(Function<Pet, String> command) {
+    commands.add(() -> publish(command.apply(pet)));
+  }
+
+  /**
+   * Lets time pass for the pet. Never blocks, whatever the simulation is doing.
+   *
+   * @param ticks the number of ticks to add
+   */
+  public void advance(long ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Invalid number of ticks: " + ticks);
+    }
+    // only the first ticks since the last drain need to wake up the simulation
+    if (ticks > 0 && pendingTicks.getAndAdd(ticks) == 0) {
+      commands.add(this::drainTicks);
+    }
+  }
+
+  /**
+   * Returns the latest published snapshot of the pet.
+   *
+   * @return the latest snapshot
+   */
+  public PetSnapshot getSnapshot() {
+    return latest.get();
+  }
+
+  private void drainTicks() {
+    long ticks = pendingTicks.getAndSet(0);
+    if (ticks > 0) {
+      PetMetrics metrics = PetMetrics.active();
+      if (metrics != null) {
+        // only the ticks the pet is alive at the start of are stepped
+        metrics.countTicks(Math.min(ticks, pet.ticksUntilDeath()));
+      }
+      pet.advance(ticks);
+      publish(tickMessage);
+    }
+  }
+
+  private void publish(String message) {
+    PetSnapshot snapshot = PetSnapshot.of(pet);
+    latest.set(snapshot);
+    listener.published(snapshot, message);
+  }
+
+  private void runLoop() {
+    while (!closed) {
+      Runnable command;
+      try {
+        command = commands.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      try {
+        command.run();
+      } catch (RuntimeException e) {
+        // a failing command or listener must not stop the commands queued after it
+        Thread current = Thread.currentThread();
+        current.getUncaughtExceptionHandler().uncaughtException(current, e);
+      }
+    }
+  }
+
+  /**
+   * Stops the simulation thread after the command it is running.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    thread.interrupt();
+  }
+
+  /**
+   * Waits for the simulation thread to stop after {@link #close()}.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout
+   * @return true if the thread stopped
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    // unlike join(0), a zero timeout does not wait at all
+    unit.timedJoin(thread, timeout);
+    return !thread.isAlive();
+  }
+}
@@ -0,0 +1,27 @@
+package controller;
+
+import pet.HealthStatus;
+import pet.PetSnapshot;
+
+/**
+ * Everything the pet window shows, captured at one moment.
+ *
+ * @param health  the value of every need
+ * @param mood    the name of the mood
+ * @param dead    whether the pet is dead
+ * @param status  the status message
+ */
+public record PetViewModel(HealthStatus health, String mood, boolean dead, String status) {
+
+  /**
+   * Builds the view model of a pet snapshot.
+   *
+   * @param snapshot the state of the pet to show
+   * @param status   the status message
+   * @return the view model of the pet
+   */
+  public static PetViewModel of(PetSnapshot snapshot, String status) {
+    return new PetViewModel(snapshot.getHealth(), snapshot.mood().name(), snapshot.isDead(),
+        status);
+  }
+}
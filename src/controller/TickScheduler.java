@@ -0,0 +1,237 @@
+package controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Advances time at a fixed rate on a dedicated thread.
+ *
+ * <p>The number of ticks due is always computed from the time the clock was
+ * last started or changed speed, never from the previous wake-up, so sleeping
+ * late does not make the clock drift. When the thread wakes up late, after a
+ * GC pause or when the machine resumes from sleep, every missed tick is
+ * delivered in a single {@link TickTarget#advance(long)} call.
+ */
+public class TickScheduler implements AutoCloseable {
+  private static final double NANOS_PER_SECOND = 1e9;
+  private final double ticksPerSecond;
+  private final TickTarget target;
+  // Reads the time in nanoseconds, System.nanoTime() but in tests
+  private final LongSupplier clock;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final Thread thread;
+  private boolean running;
+  private boolean closed;
+  private double speed = 1.0;
+  // The clock position at the last start or speed change, which due ticks are computed from
+  private long anchorNanos;
+  private long anchorTicks;
+  private long deliveredTicks;
+
+  /**
+   * Receives the ticks of the clock on the scheduler thread.
+   */
+  public interface TickTarget {
+    /**
+     * Advances the simulation.
+     *
+     * @param ticks the number of ticks due since the previous call, at least 1
+     */
+    void advance(long ticks);
+  }
+
+  /**
+   * Constructs a paused clock and starts its thread.
+   *
+   * @param ticksPerSecond the tick rate at speed 1
+   * @param target         the simulation to advance
+   */
+  public TickScheduler(double ticksPerSecond, TickTarget target) {
+    this(ticksPerSecond, target, System::nanoTime);
+  }
+
+  /**
+   * Constructs a paused clock reading the time from the given source, and starts its thread.
+   * The thread still waits in real time, for as many nanoseconds as the source says are
+   * left until the next tick.
+   *
+   * @param ticksPerSecond the tick rate at speed 1
+   * @param target         the simulation to advance
+   * @param clock          the source of the time in nanoseconds
+   */
+  TickScheduler(double ticksPerSecond, TickTarget target, LongSupplier clock) {
+    if (!(ticksPerSecond > 0)) {
+      throw new IllegalArgumentException("Invalid tick rate: " + ticksPerSecond);
+    }
+    this.ticksPerSecond = ticksPerSecond;
+    this.target = target;
+    this.clock = clock;
+    this.thread = new Thread(this::runLoop, "pet-tick-scheduler");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Starts delivering ticks. Time spent paused is not caught up.
+   */
+  public void resume() {
+    lock.lock();
+    try {
+      if (!running) {
+        reanchor(clock.getAsLong());
+        running = true;
+        changed.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stops delivering ticks until {@link #resume()} is called.
+   */
+  public void pause() {
+    lock.lock();
+    try {
+      running = false;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Changes how fast the clock runs, relative to the base tick rate.
+   *
+   * @param speed the speed multiplier, such as 2 for twice as fast
+   */
+  public void setSpeed(double speed) {
+    if (!(speed > 0)) {
+      throw new IllegalArgumentException("Invalid speed: " + speed);
+    }
+    lock.lock();
+    try {
+      reanchor(clock.getAsLong());
+      this.speed = speed;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public double getSpeed() {
+    lock.lock();
+    try {
+      return speed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean isRunning() {
+    lock.lock();
+    try {
+      return running;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of ticks delivered so far.
+   *
+   * @return the total number of ticks
+   */
+  public long getTicks() {
+    lock.lock();
+    try {
+      return deliveredTicks;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stops the clock thread.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      running = false;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Must be called while holding the lock
+  private void reanchor(long now) {
+    if (running) {
+      anchorTicks = Math.max(deliveredTicks, ticksDueAt(now));
+    } else {
+      anchorTicks = deliveredTicks;
+    }
+    anchorNanos = now;
+  }
+
+  private long ticksDueAt(long now) {
+    double ticksPerNano = ticksPerSecond * speed / NANOS_PER_SECOND;
+    return anchorTicks + (long) Math.floor((now - anchorNanos) * ticksPerNano);
+  }
+
+  private long nanosOfTick(long tick) {
+    double nanosPerTick = NANOS_PER_SECOND / (ticksPerSecond * speed);
+    return anchorNanos + (long) Math.ceil((tick - anchorTicks) * nanosPerTick);
+  }
+
+  private void runLoop() {
+    while (true) {
+      long due;
+      lock.lock();
+      try {
+        while (!closed && !running) {
+          changed.awaitUninterruptibly();
+        }
+        if (closed) {
+          return;
+        }
+        long now = clock.getAsLong();
+        due = ticksDueAt(now) - deliveredTicks;
+        if (due <= 0) {
+          long wait = nanosOfTick(deliveredTicks + 1) - now;
+          if (wait > 0) {
+            changed.awaitNanos(wait);
+          }
+          continue;
+        }
+        deliveredTicks += due;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        lock.unlock();
+      }
+      // outside the lock, so that pausing or changing speed never waits for the simulation
+      target.advance(due);
+    }
+  }
+
+  /**
+   * Waits for the clock thread to stop after {@link #close()}.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout
+   * @return true if the thread stopped
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    // unlike join(0), a zero timeout does not wait at all
+    unit.timedJoin(thread, timeout);
+    return !thread.isAlive();
+  }
+}
@@ -0,0 +1,88 @@
+package controller;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.Timer;
+import pet.Need;
+import pet.PetMetrics;
+import view.PetView;
+
+/**
+ * Pushes view models to a {@link PetView}, at most once per frame.
+ *
+ * <p>Models can be submitted from any thread. Only the latest one submitted
+ * during a frame is rendered, and only the fields that differ from the last
+ * rendered model are pushed to the view, so a fast clock neither floods the
+ * event queue nor makes the window lay out and repaint unchanged labels.
+ * The time each update of the view takes is recorded by {@link PetMetrics}.
+ */
+public class ViewRenderer {
+  // About 60 frames per second
+  static final int FRAME_MILLIS = 16;
+  private final PetView view;
+  private final AtomicReference<PetViewModel> pending = new AtomicReference<>();
+  // Set while a frame is waiting to render the pending model
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final Timer frame;
+  // Only touched on the event dispatch thread
+  private PetViewModel shown;
+
+  /**
+   * Constructs a renderer for the given view.
+   *
+   * @param view the view to update
+   */
+  public ViewRenderer(PetView view) {
+    this.view = view;
+    this.frame = new Timer(FRAME_MILLIS, e -> render());
+    frame.setRepeats(false);
+  }
+
+  /**
+   * Schedules the given model to be shown at the next frame, replacing any
+   * model that is still waiting.
+   *
+   * @param model the state to show
+   */
+  public void submit(PetViewModel model) {
+    pending.set(Objects.requireNonNull(model));
+    if (scheduled.compareAndSet(false, true)) {
+      frame.start();
+    }
+  }
+
+  // Runs on the event dispatch thread
+  private void render() {
+    scheduled.set(false);
+    PetViewModel next = pending.getAndSet(null);
+    if (next == null) {
+      return;
+    }
+    PetMetrics metrics = PetMetrics.active();
+    long start = metrics == null ? 0 : System.nanoTime();
+    PetViewModel last = shown;
+    for (Need need : Need.values()) {
+      int value = next.health().get(need);
+      if (last == null || last.health().get(need) != value) {
+        view.updateNeed(need, value);
+      }
+    }
+    if (last == null || !last.mood().equals(next.mood())) {
+      view.updateMood(next.mood());
+      if (!next.dead()) {
+        view.updateImage(next.mood());
+      }
+    }
+    if (next.dead() && (last == null || !last.dead())) {
+      view.setPetDead();
+    }
+    if (last == null || !last.status().equals(next.status())) {
+      view.updateStatus(next.status());
+    }
+    shown = next;
+    if (metrics != null) {
+      metrics.recordViewUpdate(System.nanoTime() - start);
+    }
+  }
+}
@@ -0,0 +1,351 @@
+package pet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only journal of pet interactions and steps, written to a
+ * memory-mapped file as fixed-width binary records.
+ *
+ * <p>Each 16-byte record holds the tick (8 bytes), the pet id (4 bytes) and
+ * a kind byte: the {@link Action} ordinal plus one, or a step marker. A step
+ * marker means the pet was stepped up to the record's tick, so one marker can
+ * stand for {@link Pet#advance(long)}. The pet id {@link #ALL_PETS} steps every
+ * pet. The kind byte of an unwritten record is 0, which marks the end of the
+ * journal when it is reopened. The file starts with a header of the same size
+ * holding a magic number, the format version and the segment size.
+ */
+public class ActionJournal implements AutoCloseable {
+  public static final int ALL_PETS = -1;
+  static final int RECORD_BYTES = 16;
+  static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+  private static final int MAGIC = 0x5045544A;
+  private static final short VERSION = 1;
+  private static final int TICK_OFFSET = 0;
+  private static final int PET_OFFSET = 8;
+  private static final int KIND_OFFSET = 12;
+  private static final byte EMPTY = 0;
+  private static final byte STEP = 0x7F;
+  private static final Action[] ACTIONS = Action.values();
+
+  private final FileChannel channel;
+  private final SyncPolicy policy;
+  private final long segmentBytes;
+  private final List<MappedByteBuffer> segments = new ArrayList<>();
+  private long records;
+  private long syncedRecords;
+  private long oldestPendingNanos;
+
+  /**
+   * Receives the records of a journal during replay.
+   */
+  public interface RecordHandler {
+    void onAction(long tick, int petId, Action action);
+
+    void onStep(long tick, int petId);
+  }
+
+  private ActionJournal(FileChannel channel, SyncPolicy policy, long segmentBytes) {
+    this.channel = channel;
+    this.policy = policy;
+    this.segmentBytes = segmentBytes;
+  }
+
+  /**
+   * Opens a journal for appending, creating the file if needed.
+   * Records already in the file are kept, and new ones are appended after them.
+   *
+   * @param path   the journal file
+   * @param policy when to force appended records to disk
+   * @return the open journal
+   * @throws IOException if the file cannot be mapped, is not a journal or is corrupt
+   */
+  public static ActionJournal open(Path path, SyncPolicy policy) throws IOException {
+    return open(path, policy, DEFAULT_SEGMENT_BYTES);
+  }
+
+  static ActionJournal open(Path path, SyncPolicy policy, long segmentBytes) throws IOException {
+    if (segmentBytes < 2 * RECORD_BYTES || segmentBytes % RECORD_BYTES != 0) {
+      throw new IllegalArgumentException("Invalid segment size: " + segmentBytes);
+    }
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      ActionJournal journal;
+      if (channel.size() == 0) {
+        journal = new ActionJournal(channel, policy, segmentBytes);
+        writeHeader(journal.segment(0), segmentBytes);
+        journal.segment(0).force();
+      } else {
+        long existing = readHeader(channel);
+        journal = new ActionJournal(channel, policy, existing);
+        long segmentCount = (channel.size() + existing - 1) / existing;
+        for (int i = 0; i < segmentCount; i++) {
+          journal.segment(i);
+        }
+        journal.records = scan(journal.segments, existing, Long.MAX_VALUE, null);
+        journal.syncedRecords = journal.records;
+      }
+      return journal;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Replays every record of a journal file without opening it for writing.
+   *
+   * @param path    the journal file
+   * @param handler receives the records in order
+   * @return the number of records replayed
+   * @throws IOException if the file cannot be mapped, is not a journal or is corrupt
+   */
+  public static long replay(Path path, RecordHandler handler) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long segmentBytes = readHeader(channel);
+      List<ByteBuffer> segments = new ArrayList<>();
+      for (long position = 0; position < channel.size(); position += segmentBytes) {
+        long length = Math.min(segmentBytes, channel.size() - position);
+        segments.add(channel.map(FileChannel.MapMode.READ_ONLY, position, length)
+            .order(ByteOrder.LITTLE_ENDIAN));
+      }
+      return scan(segments, segmentBytes, Long.MAX_VALUE, handler);
+    }
+  }
+
+  /**
+   * Replays every record of a journal file into the given pets, indexed by pet id.
+   *
+   * @param path the journal file
+   * @param pets the pets to rebuild, all starting at tick 0
+   * @return the number of records replayed
+   * @throws IOException if the file cannot be mapped, is not a journal or is corrupt
+   */
+  public static long replay(Path path, Pet[] pets) throws IOException {
+    return replay(path, new PetReplayer(pets));
+  }
+
+  /**
+   * Appends an interaction with a pet.
+   *
+   * @param tick   the tick at which the interaction happened
+   * @param petId  the id of the pet
+   * @param action the action applied to the pet
+   * @throws IOException if the journal cannot grow
+   */
+  public void appendAction(long tick, int petId, Action action) throws IOException {
+    append(tick, petId, (byte) (action.ordinal() + 1));
+  }
+
+  /**
+   * Appends a step marker: the pet was stepped up to the given tick.
+   *
+   * @param tick  the tick reached by the pet
+   * @param petId the id of the pet, or {@link #ALL_PETS}
+   * @throws IOException if the journal cannot grow
+   */
+  public void appendStep(long tick, int petId) throws IOException {
+    append(tick, petId, STEP);
+  }
+
+  private void append(long tick, int petId, byte kind) throws IOException {
+    // the header takes the place of the first record
+    long position = (records + 1) * RECORD_BYTES;
+    MappedByteBuffer segment = segment((int) (position / segmentBytes));
+    int offset = (int) (position % segmentBytes);
+    segment.putLong(offset + TICK_OFFSET, tick);
+    segment.putInt(offset + PET_OFFSET, petId);
+    // written last, so a record is only visible once complete
+    segment.put(offset + KIND_OFFSET, kind);
+    if (records++ == syncedRecords) {
+      oldestPendingNanos = System.nanoTime();
+    }
+    if (shouldSync()) {
+      sync();
+    }
+  }
+
+  private boolean shouldSync() {
+    long pending = records - syncedRecords;
+    if (policy.batchSize() > 0 && pending >= policy.batchSize()) {
+      return true;
+    }
+    return policy.maxDelayMillis() > 0
+        && System.nanoTime() - oldestPendingNanos >= policy.maxDelayMillis() * 1_000_000L;
+  }
+
+  /**
+   * Forces every appended record to disk.
+   */
+  public void sync() {
+    if (syncedRecords == records) {
+      return;
+    }
+    long from = (syncedRecords + 1) * RECORD_BYTES;
+    long to = (records + 1) * RECORD_BYTES;
+    while (from < to) {
+      int index = (int) (from / segmentBytes);
+      int offset = (int) (from % segmentBytes);
+      int length = (int) Math.min(segmentBytes - offset, to - from);
+      segments.get(index).force(offset, length);
+      from += length;
+    }
+    syncedRecords = records;
+  }
+
+  /**
+   * Replays the records appended so far.
+   *
+   * @param handler receives the records in order
+   * @return the number of records replayed
+   * @throws IOException if a record is corrupt
+   */
+  public long replay(RecordHandler handler) throws IOException {
+    return scan(segments, segmentBytes, records, handler);
+  }
+
+  /**
+   * Returns the number of records in the journal.
+   *
+   * @return the number of records
+   */
+  public long size() {
+    return records;
+  }
+
+  /**
+   * Syncs pending records and closes the file.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if (channel.isOpen()) {
+      sync();
+      segments.clear();
+      channel.close();
+    }
+  }
+
+  // Returns the mapped segment with the given index, mapping it and any before it if needed
+  private MappedByteBuffer segment(int index) throws IOException {
+    while (segments.size() <= index) {
+      long position = segments.size() * segmentBytes;
+      MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, position,
+          segmentBytes);
+      segment.order(ByteOrder.LITTLE_ENDIAN);
+      segments.add(segment);
+    }
+    return segments.get(index);
+  }
+
+  private static void writeHeader(ByteBuffer segment, long segmentBytes) {
+    segment.putInt(0, MAGIC);
+    segment.putShort(4, VERSION);
+    segment.putShort(6, (short) RECORD_BYTES);
+    segment.putLong(8, segmentBytes);
+  }
+
+  // Checks the header and returns the segment size of the journal
+  private static long readHeader(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        throw new IOException("Truncated journal header");
+      }
+    }
+    if (header.getInt(0) != MAGIC || header.getShort(6) != RECORD_BYTES) {
+      throw new IOException("Not a pet journal");
+    }
+    if (header.getShort(4) != VERSION) {
+      throw new IOException("Unsupported journal version: " + header.getShort(4));
+    }
+    long segmentBytes = header.getLong(8);
+    if (segmentBytes < 2 * RECORD_BYTES || segmentBytes % RECORD_BYTES != 0) {
+      throw new IOException("Invalid journal segment size: " + segmentBytes);
+    }
+    return segmentBytes;
+  }
+
+  /**
+   * Reads records until the limit, the first empty record or the end of the
+   * mapped segments, passing them to the handler when there is one.
+   * Fails on a record of unknown kind, before passing it on.
+   */
+  private static long scan(List<? extends ByteBuffer> segments, long segmentBytes, long limit,
+                           RecordHandler handler) throws IOException {
+    long count = 0;
+    long position = RECORD_BYTES;
+    for (int index = (int) (position / segmentBytes); index < segments.size(); index++) {
+      ByteBuffer segment = segments.get(index);
+      int offset = (int) (position % segmentBytes);
+      for (; offset + RECORD_BYTES <= segment.limit(); offset += RECORD_BYTES) {
+        byte kind = segment.get(offset + KIND_OFFSET);
+        if (count == limit || kind == EMPTY) {
+          return count;
+        }
+        // the kind is written last, so any other value means the file is corrupt
+        if (kind != STEP && (kind < 1 || kind > ACTIONS.length)) {
+          throw new IOException("Invalid kind " + kind + " in journal record " + (count + 1));
+        }
+        if (handler != null) {
+          long tick = segment.getLong(offset + TICK_OFFSET);
+          int petId = segment.getInt(offset + PET_OFFSET);
+          if (kind == STEP) {
+            handler.onStep(tick, petId);
+          } else {
+            handler.onAction(tick, petId, ACTIONS[kind - 1]);
+          }
+        }
+        count++;
+      }
+      position = (long) (index + 1) * segmentBytes;
+    }
+    return count;
+  }
+
+  /**
+   * Rebuilds pets from records, keeping track of the tick each pet has reached.
+   */
+  static class PetReplayer implements RecordHandler {
+    private final Pet[] pets;
+    private final long[] ticks;
+
+    PetReplayer(Pet[] pets) {
+      this.pets = pets;
+      this.ticks = new long[pets.length];
+    }
+
+    @Override
+    public void onAction(long tick, int petId, Action action) {
+      pets[petId].interactWith(action);
+    }
+
+    @Override
+    public void onStep(long tick, int petId) {
+      if (petId == ALL_PETS) {
+        for (int i = 0; i < pets.length; i++) {
+          stepTo(i, tick);
+        }
+      } else {
+        stepTo(petId, tick);
+      }
+    }
+
+    private void stepTo(int petId, long tick) {
+      long behind = tick - ticks[petId];
+      if (behind > 0) {
+        pets[petId].advance(behind);
+        ticks[petId] = tick;
+      }
+    }
+  }
+}
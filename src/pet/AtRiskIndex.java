@@ -0,0 +1,308 @@
+package pet;
+
+import java.util.Arrays;
+
+/**
+ * Keeps pets ordered by how soon they die if nobody interacts with them.
+ *
+ * <p>Each pet is indexed by the tick it is predicted to die at, rather than
+ * by the number of ticks left, so stepping every pet moves no entry: the
+ * index only advances its clock. Entries change when an interaction or a
+ * direct change to a pet makes its prediction stale. Pets are kept in an
+ * indexed binary min-heap over primitive arrays, so an update takes
+ * O(log n), the K most at-risk pets take O(K log K) and the pets dying within
+ * a number of ticks take time proportional to how many there are.
+ *
+ * <p>Pets that are dead, or that never die without interaction, are not
+ * indexed. The index is not thread-safe.
+ */
+public class AtRiskIndex {
+  private static final int ABSENT = -1;
+
+  private final int capacity;
+  // The predicted tick of death of each pet, valid while the pet is in the heap
+  private final long[] deathTicks;
+  private final int[] heap;
+  // The position of each pet in the heap, or ABSENT
+  private final int[] positions;
+  private int size;
+  private long tick;
+
+  /**
+   * Constructs an empty index for pets with ids from 0 to capacity - 1.
+   *
+   * @param capacity the number of pet ids
+   */
+  public AtRiskIndex(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    this.capacity = capacity;
+    this.deathTicks = new long[capacity];
+    this.heap = new int[capacity];
+    this.positions = new int[capacity];
+    Arrays.fill(positions, ABSENT);
+  }
+
+  /**
+   * Returns the number of pets that die unless someone interacts with them.
+   *
+   * @return the number of indexed pets
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of ticks the index has advanced since it was created.
+   *
+   * @return the current tick
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * Advances the clock of the index once every indexed pet has been stepped,
+   * and drops the pets whose predicted death has come.
+   *
+   * @param ticks the number of steps taken by every pet
+   */
+  public void advance(long ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Invalid number of ticks: " + ticks);
+    }
+    tick += ticks;
+    while (size > 0 && deathTicks[heap[0]] <= tick) {
+      remove(heap[0]);
+    }
+  }
+
+  /**
+   * Records a new prediction for a pet.
+   *
+   * @param petId           the id of the pet
+   * @param ticksUntilDeath the steps left before the pet dies, as returned by
+   *                        {@link Pet#ticksUntilDeath()}: 0 or {@link Pet#NEVER}
+   *                        remove the pet from the index
+   */
+  public void update(int petId, long ticksUntilDeath) {
+    checkId(petId);
+    if (ticksUntilDeath < 0) {
+      throw new IllegalArgumentException("Invalid number of ticks: " + ticksUntilDeath);
+    }
+    if (ticksUntilDeath == 0 || ticksUntilDeath == Pet.NEVER) {
+      remove(petId);
+      return;
+    }
+    long deathTick = ticksUntilDeath > Long.MAX_VALUE - tick ? Long.MAX_VALUE
+        : tick + ticksUntilDeath;
+    int position = positions[petId];
+    if (position == ABSENT) {
+      deathTicks[petId] = deathTick;
+      heap[size] = petId;
+      positions[petId] = size;
+      siftUp(size++);
+    } else {
+      long previous = deathTicks[petId];
+      deathTicks[petId] = deathTick;
+      if (deathTick < previous) {
+        siftUp(position);
+      } else {
+        siftDown(position);
+      }
+    }
+  }
+
+  /**
+   * Removes a pet from the index.
+   *
+   * @param petId the id of the pet
+   */
+  public void remove(int petId) {
+    checkId(petId);
+    int position = positions[petId];
+    if (position == ABSENT) {
+      return;
+    }
+    positions[petId] = ABSENT;
+    int last = heap[--size];
+    if (position < size) {
+      heap[position] = last;
+      positions[last] = position;
+      siftDown(position);
+      siftUp(positions[last]);
+    }
+  }
+
+  public boolean contains(int petId) {
+    checkId(petId);
+    return positions[petId] != ABSENT;
+  }
+
+  /**
+   * Returns the steps left before a pet dies, as last recorded.
+   *
+   * @param petId the id of the pet
+   * @return the number of steps, or {@link Pet#NEVER} if the pet is not indexed
+   */
+  public long ticksUntilDeath(int petId) {
+    checkId(petId);
+    return positions[petId] == ABSENT ? Pet.NEVER : deathTicks[petId] - tick;
+  }
+
+  /**
+   * Returns the pets that die the soonest, in O(K log K).
+   *
+   * @param k the maximum number of pets
+   * @return the ids of up to k pets, the soonest to die first
+   */
+  public int[] topAtRisk(int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("Invalid number of pets: " + k);
+    }
+    int count = Math.min(k, size);
+    int[] result = new int[count];
+    // a second heap of heap positions, holding the children of the pets taken so far
+    int[] frontier = new int[count * 2 + 1];
+    int frontierSize = 0;
+    if (count > 0) {
+      frontier[frontierSize++] = 0;
+    }
+    for (int n = 0; n < count; n++) {
+      int position = frontier[0];
+      frontier[0] = frontier[--frontierSize];
+      siftDownFrontier(frontier, frontierSize, 0);
+      result[n] = heap[position];
+      for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+        frontier[frontierSize] = child;
+        siftUpFrontier(frontier, frontierSize++);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the pets that die within the given number of steps, in time
+   * proportional to their number.
+   *
+   * @param ticks the number of steps
+   * @return the ids of the pets, in no particular order
+   */
+  public int[] dyingWithin(long ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Invalid number of ticks: " + ticks);
+    }
+    long limit = ticks > Long.MAX_VALUE - tick ? Long.MAX_VALUE : tick + ticks;
+    int[] result = new int[Math.min(size, 16)];
+    int count = 0;
+    // every pet dying before the limit is in the subtree of the root cut at later pets
+    int[] pending = new int[Math.min(size, 16)];
+    int pendingSize = 0;
+    if (size > 0) {
+      pending[pendingSize++] = 0;
+    }
+    while (pendingSize > 0) {
+      int position = pending[--pendingSize];
+      int petId = heap[position];
+      if (deathTicks[petId] > limit) {
+        continue;
+      }
+      if (count == result.length) {
+        result = Arrays.copyOf(result, count * 2);
+      }
+      result[count++] = petId;
+      if (pendingSize + 2 > pending.length) {
+        pending = Arrays.copyOf(pending, pending.length * 2 + 2);
+      }
+      for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+        pending[pendingSize++] = child;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private void checkId(int petId) {
+    if (petId < 0 || petId >= capacity) {
+      throw new IndexOutOfBoundsException("Invalid pet id: " + petId);
+    }
+  }
+
+  private void siftUp(int position) {
+    int petId = heap[position];
+    long deathTick = deathTicks[petId];
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      int parentId = heap[parent];
+      if (deathTicks[parentId] <= deathTick) {
+        break;
+      }
+      heap[position] = parentId;
+      positions[parentId] = position;
+      position = parent;
+    }
+    heap[position] = petId;
+    positions[petId] = position;
+  }
+
+  private void siftDown(int position) {
+    int petId = heap[position];
+    long deathTick = deathTicks[petId];
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && deathTicks[heap[child + 1]] < deathTicks[heap[child]]) {
+        child++;
+      }
+      int childId = heap[child];
+      if (deathTicks[childId] >= deathTick) {
+        break;
+      }
+      heap[position] = childId;
+      positions[childId] = position;
+      position = child;
+    }
+    heap[position] = petId;
+    positions[petId] = position;
+  }
+
+  private long frontierKey(int[] frontier, int n) {
+    return deathTicks[heap[frontier[n]]];
+  }
+
+  private void siftUpFrontier(int[] frontier, int n) {
+    while (n > 0) {
+      int parent = (n - 1) >>> 1;
+      if (frontierKey(frontier, parent) <= frontierKey(frontier, n)) {
+        break;
+      }
+      swap(frontier, n, parent);
+      n = parent;
+    }
+  }
+
+  private void siftDownFrontier(int[] frontier, int size, int n) {
+    while (true) {
+      int child = 2 * n + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && frontierKey(frontier, child + 1) < frontierKey(frontier, child)) {
+        child++;
+      }
+      if (frontierKey(frontier, child) >= frontierKey(frontier, n)) {
+        break;
+      }
+      swap(frontier, n, child);
+      n = child;
+    }
+  }
+
+  private static void swap(int[] values, int a, int b) {
+    int value = values[a];
+    values[a] = values[b];
+    values[b] = value;
+  }
+}
@@ -0,0 +1,270 @@
+package pet;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A pet that can be stepped and interacted with from any number of threads.
+ *
+ * <p>The whole state of the pet is one immutable value behind an atomic
+ * reference. Every change reads the current value, applies the same rules as
+ * {@link Pet} to a private copy and publishes the result with a single
+ * compare-and-set, retrying if another thread got there first. Each change
+ * therefore takes effect atomically at its compare-and-set, and reads never
+ * lock: they see one consistent value.
+ *
+ * <p>The private copy reports nothing, since an attempt may be retried. Once a
+ * change has taken effect, the difference between the value it replaced and
+ * the value it published is counted, published and recorded, once.
+ */
+public class ConcurrentPet implements PetInterface {
+  // Each thread applies the rules on its own pet, restored from the current state
+  private static final ThreadLocal<Pet> SCRATCH = ThreadLocal.withInitial(Pet::scratch);
+  private final AtomicReference<State> state;
+  // Where transitions are published, if anywhere, and the id they are published with
+  private volatile Publisher publisher = new Publisher(null, -1);
+
+  private record Publisher(PetEventBus events, int id) {
+  }
+
+  // A change that took effect, from the value it replaced to the value it published
+  private record Change(State before, State after) {
+  }
+
+  // The complete state of a pet, as restored by Pet.restore(), with needs that are never modified
+  private record State(int[] needs, MoodEnum mood, PetState state, int hungerLowStreak,
+                       boolean justWokeUp) {
+    static State of(Pet pet) {
+      return new State(pet.getNeeds().clone(), pet.getMood(), pet.getState(),
+          pet.getHungerLowStreak(), pet.isJustWokeUp());
+    }
+
+    // Compares the needs by value, so that an unchanged pet is recognized
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof State that && Arrays.equals(needs, that.needs)
+          && mood == that.mood && state == that.state
+          && hungerLowStreak == that.hungerLowStreak && justWokeUp == that.justWokeUp;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Arrays.hashCode(needs) + mood.hashCode();
+    }
+
+    Pet restoreInto(Pet pet) {
+      pet.restore(needs, mood, state, hungerLowStreak, justWokeUp);
+      return pet;
+    }
+  }
+
+  /**
+   * Constructs a new pet with default values.
+   */
+  public ConcurrentPet() {
+    this(new Pet());
+  }
+
+  /**
+   * Constructs a pet starting from the state of the given pet.
+   *
+   * @param pet the pet to copy
+   */
+  public ConcurrentPet(Pet pet) {
+    this.state = new AtomicReference<>(State.of(pet));
+  }
+
+  // Applies a transition atomically, retrying until no other thread interferes
+  private Change update(Consumer<Pet> transition) {
+    Pet scratch = SCRATCH.get();
+    while (true) {
+      State current = state.get();
+      transition.accept(current.restoreInto(scratch));
+      State next = State.of(scratch);
+      // an unchanged pet needs no write, the read was already a valid point in time
+      if (next.equals(current) || state.compareAndSet(current, next)) {
+        return new Change(current, next);
+      }
+    }
+  }
+
+  // Reports a change that took effect, in the order a Pet reports its own transitions
+  private Change report(Change change) {
+    State before = change.before();
+    State after = change.after();
+    Publisher publisher = this.publisher;
+    if (before.hungerLowStreak() < Pet.HUNGER_STREAK_LIMIT
+        && after.hungerLowStreak() >= Pet.HUNGER_STREAK_LIMIT) {
+      Pet.reportHungryWarning(publisher.events(), publisher.id(), after.hungerLowStreak());
+    }
+    if (before.mood() != after.mood()) {
+      // moods settle before deaths, so a pet that died changed mood while alive
+      PetState state = after.state() == PetState.Dead ? before.state() : after.state();
+      Pet.reportMoodChange(publisher.events(), publisher.id(), before.mood(), after.mood(),
+          state);
+    }
+    if (before.state() != after.state()) {
+      Pet.reportStateChange(publisher.events(), publisher.id(), before.state(), after.state(),
+          after.mood(), after.needs());
+    }
+    return change;
+  }
+
+  // Evaluates the pet at one consistent point in time
+  private Pet read() {
+    return state.get().restoreInto(SCRATCH.get());
+  }
+
+  @Override
+  public void step() {
+    PetMetrics metrics = PetMetrics.active();
+    boolean timed = metrics != null && metrics.takeStepSample();
+    long start = timed ? System.nanoTime() : 0;
+    report(update(Pet::step));
+    if (timed) {
+      metrics.recordStep(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Advances time as {@link Pet#advance(long)} does. Only the difference
+   * between the pet before and after the whole advance is reported.
+   *
+   * @param ticks the number of steps to advance
+   */
+  @Override
+  public void advance(long ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Invalid number of ticks: " + ticks);
+    }
+    TickEvent event = new TickEvent();
+    event.begin();
+    Change change = report(update(pet -> pet.advance(ticks)));
+    if (ticks > 0 && change.before().state() != PetState.Dead && event.shouldCommit()) {
+      event.petId = publisher.id();
+      event.pets = 1;
+      event.ticks = ticks;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    InteractionEvent event = new InteractionEvent();
+    event.begin();
+    PetMetrics metrics = PetMetrics.active();
+    boolean timed = metrics != null && metrics.takeInteractSample();
+    long start = timed ? System.nanoTime() : 0;
+    Change change = report(update(pet -> pet.interactWith(action)));
+    if (timed) {
+      metrics.recordInteraction(System.nanoTime() - start);
+    }
+    if (event.shouldCommit()) {
+      event.petId = publisher.id();
+      event.action = action.name();
+      event.oldMood = change.before().mood().name();
+      event.newMood = change.after().mood().name();
+      event.oldState = change.before().state().name();
+      event.newState = change.after().state().name();
+      event.commit();
+    }
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    report(update(pet -> pet.setMood(mood)));
+  }
+
+  @Override
+  public void setState(PetState state) {
+    report(update(pet -> pet.setState(state)));
+  }
+
+  @Override
+  public void updateDeath() {
+    report(update(Pet::updateDeath));
+  }
+
+  /**
+   * Publishes the transitions of this pet from now on, as
+   * {@link Pet#publishTo(PetEventBus, int)} does. Each transition is
+   * published once, by the thread whose change made it take effect.
+   *
+   * @param bus   the bus to publish to, or null to stop publishing
+   * @param petId the id the events are published with
+   */
+  public void publishTo(PetEventBus bus, int petId) {
+    this.publisher = new Publisher(bus, petId);
+  }
+
+  /**
+   * Returns a snapshot of the pet, with every field read at the same moment.
+   *
+   * @return the snapshot of the pet
+   */
+  public PetSnapshot snapshot() {
+    return PetSnapshot.of(read());
+  }
+
+  /**
+   * Returns the number of ticks until the pet dies if nobody interacts with it.
+   *
+   * @return the number of ticks, 0 if the pet is dead
+   */
+  public long ticksUntilDeath() {
+    return read().ticksUntilDeath();
+  }
+
+  /**
+   * Returns the number of ticks until the pet becomes sad if nobody interacts with it.
+   *
+   * @return the number of ticks, 0 if the pet is sad, or {@link Pet#NEVER} if it
+   *     dies or stays happy first
+   */
+  public long ticksUntilSad() {
+    return read().ticksUntilSad();
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return new HealthStatus(state.get().needs());
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return state.get().mood();
+  }
+
+  @Override
+  public int getNeed(Need need) {
+    return state.get().needs()[need.ordinal()];
+  }
+
+  @Override
+  public NeedLimits getLimits(Need need) {
+    return need.limits();
+  }
+
+  @Override
+  public PetState getState() {
+    return state.get().state();
+  }
+
+  @Override
+  public boolean isDead() {
+    return state.get().state() == PetState.Dead;
+  }
+
+  public boolean isSleeping() {
+    return state.get().state() == PetState.Sleeping;
+  }
+
+  public boolean isJustWokeUp() {
+    return state.get().justWokeUp();
+  }
+
+  public boolean isHungryWarning() {
+    return state.get().hungerLowStreak() >= Pet.HUNGER_STREAK_LIMIT;
+  }
+}
@@ -0,0 +1,36 @@
+package pet;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * A periodic flight recorder event sampling the {@link PetMetrics} counters,
+ * recorded while metrics are on.
+ */
+@Name("pet.Counters")
+@Label("Pet Counters")
+@Category("Virtual Pet")
+@Description("The simulation counters, sampled periodically while metrics are on")
+@Period("1 s")
+class CountersEvent extends jdk.jfr.Event {
+  @Label("Ticks")
+  long ticks;
+
+  @Label("Interactions")
+  long interactions;
+
+  @Label("Mood Changes")
+  long moodChanges;
+
+  @Label("Sleep Toggles")
+  long sleepToggles;
+
+  @Label("Hungry Warnings")
+  long hungryWarnings;
+
+  @Label("Deaths")
+  long deaths;
+}
@@ -0,0 +1,26 @@
+package pet;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the death of a pet, with the needs that killed it.
+ */
+@Name("pet.Death")
+@Label("Pet Death")
+@Category("Virtual Pet")
+class DeathEvent extends jdk.jfr.Event {
+  @Label("Pet Id")
+  int petId;
+
+  @Label("Old State")
+  String oldState;
+
+  @Label("Mood")
+  String mood;
+
+  // Every need of the registry, such as "hunger=100, hygiene=40"
+  @Label("Needs")
+  String needs;
+}
@@ -0,0 +1,75 @@
+package pet;
+
+/**
+ * Applies mood and sleep decay to whole need columns of a population.
+ * Dead pets are left untouched, sleeping pets get the sleep deltas and
+ * active pets get the happy profile if happy and the sad one in any other
+ * mood, clamped to the limits of their species just like
+ * {@link PetUtils#applyDecay} for the default one.
+ */
+interface DecayKernel {
+  // Set -Dpet.simd=false to force the scalar kernel
+  String SIMD_PROPERTY = "pet.simd";
+  String VECTOR_MODULE = "jdk.incubator.vector";
+
+  /**
+   * Applies one step of decay to the pets with indices in {@code [from, to)}.
+   *
+   * @param needs the need columns, one per {@link Need} in order
+   * @param mood  the mood column, holding {@link MoodEnum} ordinals
+   * @param state the state column, holding {@link PetState} ordinals
+   * @param from  the first index, inclusive
+   * @param to    the last index, exclusive
+   */
+  void apply(int[][] needs, byte[] mood, byte[] state, int from, int to);
+
+  /**
+   * Creates the fastest kernel available for the given profiles and the
+   * {@link NeedConfig} limits.
+   *
+   * @param happy  the decay of an active happy pet
+   * @param sad    the decay of an active sad pet
+   * @param asleep the decay of a sleeping pet
+   * @return a decay kernel
+   */
+  static DecayKernel create(MoodDecayProfile happy, MoodDecayProfile sad,
+                            MoodDecayProfile asleep) {
+    return create(happy, sad, asleep, ScalarDecayKernel.DEFAULT_LIMITS);
+  }
+
+  /**
+   * Creates the fastest kernel available for the given profiles and limits.
+   * The SIMD kernel is used when the JVM was started with
+   * {@code --add-modules jdk.incubator.vector}, otherwise the scalar one.
+   *
+   * @param happy  the decay of an active happy pet
+   * @param sad    the decay of an active sad pet
+   * @param asleep the decay of a sleeping pet
+   * @param limits the limits of each need, in {@link Need} order
+   * @return a decay kernel
+   */
+  static DecayKernel create(MoodDecayProfile happy, MoodDecayProfile sad,
+                            MoodDecayProfile asleep, NeedLimits[] limits) {
+    if (isVectorAvailable()) {
+      try {
+        return (DecayKernel) Class.forName("pet.VectorDecayKernel")
+            .getDeclaredConstructor(MoodDecayProfile.class, MoodDecayProfile.class,
+                MoodDecayProfile.class, NeedLimits[].class)
+            .newInstance(happy, sad, asleep, limits);
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // fall back to the scalar kernel below
+      }
+    }
+    return new ScalarDecayKernel(happy, sad, asleep, limits);
+  }
+
+  /**
+   * Checks if the Vector API can be used by this JVM.
+   *
+   * @return true if the vector module is loaded and SIMD is not disabled
+   */
+  static boolean isVectorAvailable() {
+    return Boolean.parseBoolean(System.getProperty(SIMD_PROPERTY, "true"))
+        && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+  }
+}
@@ -5,36 +5,17 @@ package pet;
  */
 public class HappyMood implements MoodStrategy {
   // The mood boost profile for a happy pet
-  private static final MoodBoostProfile BOOST = new MoodBoostProfile(-15, 15, -15, 15);
+  static final MoodBoostProfile BOOST = new MoodBoostProfile(-15, 15, -15, 15);
   // The mood decay profile for a happy pet
-  private static final MoodDecayProfile DECAY = new MoodDecayProfile(5, -5, 5, -5);
+  static final MoodDecayProfile DECAY = new MoodDecayProfile(5, -5, 5, -5);
 
 
   @Override
   public void respondToAction(Action action, Pet pet) {
-    HealthStatus oldHealth = pet.getHealth();
-    int hunger = oldHealth.getHunger();
-    int hygiene = oldHealth.getHygiene();
-    int social = oldHealth.getSocial();
-    int sleep = oldHealth.getSleep();
-
-    switch (action) {
-      case FEED:
-        hunger = PetUtils.clamp(hunger + BOOST.hunger(), pet.getHungerLimits());
-        break;
-      case PLAY:
-        social = PetUtils.clamp(social + BOOST.social(), pet.getSocialLimits());
-        break;
-      case CLEAN:
-        hygiene = PetUtils.clamp(hygiene + BOOST.hygiene(), pet.getHygieneLimits());
-        break;
-      case SLEEP:
-        sleep = PetUtils.clamp(sleep + BOOST.sleep(), pet.getSleepLimits());
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid action: " + action);
-    }
-    pet.setHealth(new HealthStatus(hunger, hygiene, social, sleep));
+    // the action boosts the need it is for
+    Need need = Need.of(action);
+    int n = need.ordinal();
+    pet.setNeed(n, PetUtils.clamp(pet.getNeed(n) + BOOST.get(n), pet.getLimits(need)));
   }
 
   /**
@@ -44,7 +25,7 @@ public class HappyMood implements MoodStrategy {
    */
   @Override
   public void step(Pet pet) {
-    pet.setHealth(PetUtils.applyDecay(pet.getHealth(), DECAY));
+    pet.decay(DECAY);
   }
 
 }
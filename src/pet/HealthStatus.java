@@ -1,51 +1,85 @@
 package pet;
 
+import java.util.Arrays;
+import java.util.Locale;
+
 /**
- * Represents the health status of a pet.
+ * Represents the health status of a pet: the value of every {@link Need},
+ * in the order of the needs.
  */
 public class HealthStatus {
-  private final int hunger;
-  private final int hygiene;
-  private final int social;
-  private final int sleep;
+  private final int[] values;
 
   /**
-   * Constructs a new HealthStatus object with the given values.
+   * Constructs a new HealthStatus object with the given values, one per
+   * need: hunger, hygiene, social and sleep.
    *
-   * @param hunger  the hunger level
-   * @param hygiene the hygiene level
-   * @param social  the social level
-   * @param sleep   the sleep level
+   * @param values the value of each need, in the order of {@link Need}
+   * @throws IllegalArgumentException if there is not one value per need
    */
-  public HealthStatus(int hunger, int hygiene, int social, int sleep) {
-    this.hunger = hunger;
-    this.hygiene = hygiene;
-    this.social = social;
-    this.sleep = sleep;
+  public HealthStatus(int... values) {
+    if (values.length != Need.COUNT) {
+      throw new IllegalArgumentException("Expected " + Need.COUNT + " needs, got "
+          + values.length);
+    }
+    this.values = values.clone();
+  }
+
+  /**
+   * Returns the value of a need.
+   *
+   * @param need the need
+   * @return the value of the need
+   */
+  public int get(Need need) {
+    return values[need.ordinal()];
   }
 
   public int getHunger() {
-    return hunger;
+    return get(Need.HUNGER);
   }
 
   public int getHygiene() {
-    return hygiene;
+    return get(Need.HYGIENE);
   }
 
   public int getSocial() {
-    return social;
+    return get(Need.SOCIAL);
   }
 
   public int getSleep() {
-    return sleep;
+    return get(Need.SLEEP);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof HealthStatus health && Arrays.equals(values, health.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(values);
+  }
+
+  /**
+   * Describes the value of every need, such as {@code hunger=5, hygiene=95}
+   * and so on for each need.
+   *
+   * @return the description of the needs
+   */
+  public String describe() {
+    StringBuilder text = new StringBuilder();
+    for (Need need : Need.values()) {
+      if (need.ordinal() > 0) {
+        text.append(", ");
+      }
+      text.append(need.name().toLowerCase(Locale.ROOT)).append('=').append(get(need));
+    }
+    return text.toString();
   }
 
   @Override
   public String toString() {
-    return "HealthStatus{"
-        + "hunger=" + hunger
-        + ", hygiene=" + hygiene
-        + ", social=" + social
-        + ", sleep=" + sleep + '}';
+    return "HealthStatus{" + describe() + '}';
   }
 }
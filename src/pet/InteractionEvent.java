@@ -0,0 +1,31 @@
+package pet;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for one interaction with a pet.
+ */
+@Name("pet.Interaction")
+@Label("Pet Interaction")
+@Category("Virtual Pet")
+class InteractionEvent extends jdk.jfr.Event {
+  @Label("Pet Id")
+  int petId;
+
+  @Label("Action")
+  String action;
+
+  @Label("Old Mood")
+  String oldMood;
+
+  @Label("New Mood")
+  String newMood;
+
+  @Label("Old State")
+  String oldState;
+
+  @Label("New State")
+  String newState;
+}
@@ -0,0 +1,116 @@
+package pet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A pet that records every interaction and step in an {@link ActionJournal}.
+ * Direct changes through {@link #setMood} and {@link #setState} are not
+ * journaled, so a replay only reproduces pets driven by actions and time.
+ */
+public class JournaledPet implements PetInterface {
+  private final Pet pet;
+  private final ActionJournal journal;
+  private final int petId;
+  private long tick;
+
+  /**
+   * Constructs a journaled view of the given pet.
+   *
+   * @param pet     the pet to drive
+   * @param journal the journal to append to
+   * @param petId   the id of the pet in the journal
+   */
+  public JournaledPet(Pet pet, ActionJournal journal, int petId) {
+    if (petId < 0) {
+      throw new IllegalArgumentException("Invalid pet id: " + petId);
+    }
+    this.pet = pet;
+    this.journal = journal;
+    this.petId = petId;
+  }
+
+  @Override
+  public void step() {
+    advance(1);
+  }
+
+  @Override
+  public void advance(long ticks) {
+    pet.advance(ticks);
+    tick += ticks;
+    try {
+      journal.appendStep(tick, petId);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    pet.interactWith(action);
+    try {
+      journal.appendAction(tick, petId, action);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the tick the pet has reached.
+   *
+   * @return the number of steps taken so far
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  public Pet getPet() {
+    return pet;
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return pet.getHealth();
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return pet.getMood();
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    pet.setMood(mood);
+  }
+
+  @Override
+  public int getNeed(Need need) {
+    return pet.getNeed(need);
+  }
+
+  @Override
+  public NeedLimits getLimits(Need need) {
+    return pet.getLimits(need);
+  }
+
+  @Override
+  public PetState getState() {
+    return pet.getState();
+  }
+
+  @Override
+  public void setState(PetState state) {
+    pet.setState(state);
+  }
+
+  @Override
+  public boolean isDead() {
+    return pet.isDead();
+  }
+
+  @Override
+  public void updateDeath() {
+    pet.updateDeath();
+  }
+}
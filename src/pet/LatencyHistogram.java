@@ -0,0 +1,121 @@
+package pet;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds.
+ *
+ * <p>Buckets are log-linear: every power of two is split into 8 buckets, so
+ * a recorded value is known to within 12.5% whatever its size, in a fixed
+ * table of 496 counters. Recording is one increment and never allocates.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BITS = 3;
+  private static final int SUB_MASK = (1 << SUB_BITS) - 1;
+  private static final int BUCKETS = (Long.SIZE - SUB_BITS + 1) << SUB_BITS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records one latency.
+   *
+   * @param nanos the latency in nanoseconds, negative values count as 0
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts.incrementAndGet(bucketOf(value));
+    count.increment();
+    sum.add(value);
+    if (value > max.get()) {
+      max.accumulateAndGet(value, Math::max);
+    }
+  }
+
+  static int bucketOf(long value) {
+    if (value <= SUB_MASK) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & SUB_MASK;
+    return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+  }
+
+  // The smallest value counted in the bucket
+  static long lowerBound(int bucket) {
+    if (bucket <= SUB_MASK) {
+      return bucket;
+    }
+    int exponent = (bucket >> SUB_BITS) + SUB_BITS - 1;
+    return 1L << exponent | (long) (bucket & SUB_MASK) << (exponent - SUB_BITS);
+  }
+
+  /**
+   * Returns the number of latencies recorded.
+   *
+   * @return the number of latencies
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the mean latency.
+   *
+   * @return the mean in nanoseconds, 0 if nothing was recorded
+   */
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) sum.sum() / n;
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns an upper bound of the given percentile of the recorded latencies.
+   *
+   * @param percentile the percentile, from 0 to 100
+   * @return the latency in nanoseconds, 0 if nothing was recorded
+   */
+  public long getPercentile(double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Invalid percentile: " + percentile);
+    }
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      snapshot[bucket] = counts.get(bucket);
+      total += snapshot[bucket];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += snapshot[bucket];
+      if (seen >= rank) {
+        long upper = bucket + 1 < BUCKETS ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+        return Math.min(upper, max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Describes the histogram on one line, with latencies in microseconds.
+   *
+   * @return the count, mean, median, 99th percentile and maximum
+   */
+  @Override
+  public String toString() {
+    return String.format("count=%d mean=%.2fus p50=%.2fus p99=%.2fus max=%.2fus", getCount(),
+        getMean() / 1e3, getPercentile(50) / 1e3, getPercentile(99) / 1e3, getMax() / 1e3);
+  }
+}
@@ -0,0 +1,45 @@
+package pet;
+
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints the report of some metrics at a fixed period, on a daemon thread.
+ */
+public class MetricsReporter implements AutoCloseable {
+  private final ScheduledExecutorService executor;
+
+  /**
+   * Starts printing the given metrics.
+   *
+   * @param metrics the metrics to print
+   * @param out     where to print them
+   * @param period  the time between two reports
+   * @param unit    the unit of the period
+   */
+  public MetricsReporter(PetMetrics metrics, PrintStream out, long period, TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("Invalid period: " + period);
+    }
+    this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "pet-metrics-reporter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleAtFixedRate(() -> out.print("-- metrics at "
+        + LocalTime.now().truncatedTo(ChronoUnit.SECONDS) + System.lineSeparator()
+        + metrics.getReport()), period, period, unit);
+  }
+
+  /**
+   * Stops printing.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
@@ -1,8 +1,61 @@
 package pet;
 
+import java.util.Arrays;
+
 /**
- * Represents the mood boost profile of a pet.
+ * Represents the mood boost profile of a pet: how much each need changes
+ * when the action boosting it is taken, one value per {@link Need} in the
+ * order of the needs.
  */
-public record MoodBoostProfile(int hunger, int hygiene, int social, int sleep) {
-}
+public final class MoodBoostProfile {
+  private final int[] deltas;
+
+  /**
+   * Constructs a profile with one value per need: hunger, hygiene, social and sleep.
+   *
+   * @param deltas the value of each need, in the order of {@link Need}
+   * @throws IllegalArgumentException if there is not one value per need
+   */
+  public MoodBoostProfile(int... deltas) {
+    if (deltas.length != Need.COUNT) {
+      throw new IllegalArgumentException("Expected " + Need.COUNT + " needs, got "
+          + deltas.length);
+    }
+    this.deltas = deltas.clone();
+  }
+
+  /**
+   * Returns the value of a need.
+   *
+   * @param need the need
+   * @return the value of the need
+   */
+  public int get(Need need) {
+    return deltas[need.ordinal()];
+  }
+
+  // The value of the need with the given ordinal
+  int get(int need) {
+    return deltas[need];
+  }
 
+  // A copy of the values of every need
+  int[] toArray() {
+    return deltas.clone();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof MoodBoostProfile profile && Arrays.equals(deltas, profile.deltas);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(deltas);
+  }
+
+  @Override
+  public String toString() {
+    return "MoodBoostProfile" + Arrays.toString(deltas);
+  }
+}
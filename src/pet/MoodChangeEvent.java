@@ -0,0 +1,25 @@
+package pet;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for a pet changing mood.
+ */
+@Name("pet.MoodChange")
+@Label("Pet Mood Change")
+@Category("Virtual Pet")
+class MoodChangeEvent extends jdk.jfr.Event {
+  @Label("Pet Id")
+  int petId;
+
+  @Label("Old Mood")
+  String oldMood;
+
+  @Label("New Mood")
+  String newMood;
+
+  @Label("State")
+  String state;
+}
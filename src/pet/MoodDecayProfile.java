@@ -1,8 +1,60 @@
 package pet;
 
+import java.util.Arrays;
+
 /**
- * Represents the mood decay profile of a pet.
+ * Represents the mood decay profile of a pet: how much each need changes
+ * on every step, one value per {@link Need} in the order of the needs.
  */
-public record MoodDecayProfile(int hunger, int hygiene, int social, int sleep) {
-}
+public final class MoodDecayProfile {
+  private final int[] deltas;
+
+  /**
+   * Constructs a profile with one value per need: hunger, hygiene, social and sleep.
+   *
+   * @param deltas the value of each need, in the order of {@link Need}
+   * @throws IllegalArgumentException if there is not one value per need
+   */
+  public MoodDecayProfile(int... deltas) {
+    if (deltas.length != Need.COUNT) {
+      throw new IllegalArgumentException("Expected " + Need.COUNT + " needs, got "
+          + deltas.length);
+    }
+    this.deltas = deltas.clone();
+  }
+
+  /**
+   * Returns the value of a need.
+   *
+   * @param need the need
+   * @return the value of the need
+   */
+  public int get(Need need) {
+    return deltas[need.ordinal()];
+  }
+
+  // The value of the need with the given ordinal
+  int get(int need) {
+    return deltas[need];
+  }
 
+  // A copy of the values of every need
+  int[] toArray() {
+    return deltas.clone();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof MoodDecayProfile profile && Arrays.equals(deltas, profile.deltas);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(deltas);
+  }
+
+  @Override
+  public String toString() {
+    return "MoodDecayProfile" + Arrays.toString(deltas);
+  }
+}
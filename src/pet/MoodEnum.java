@@ -2,8 +2,14 @@ package pet;
 
 /**
  * Represents the mood of a pet.
+ * Pets of the default species are only ever happy or sad; the other moods
+ * are entered under the conditions a {@link SpeciesProfile} gives them.
+ * When several moods apply at once, the one declared last wins.
  */
 public enum MoodEnum {
   HAPPY,
-  SAD
+  SAD,
+  BORED,
+  SLEEPY,
+  SICK
 }
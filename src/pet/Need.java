@@ -0,0 +1,97 @@
+package pet;
+
+import java.util.Locale;
+
+/**
+ * Represents one of the needs of a pet, and is the registry of all of them:
+ * every need has its limits, the direction in which it gets worse and the
+ * action that boosts it. Needs are stored and processed by their ordinal,
+ * so everything that holds one value per need, from {@link HealthStatus}
+ * to the columns of a {@link PetPopulation}, follows the order below, and
+ * decay, clamping, moods and death are loops over the needs.
+ */
+public enum Need {
+  HUNGER(NeedConfig.HUNGER, true, Action.FEED),
+  HYGIENE(NeedConfig.HYGIENE, false, Action.CLEAN),
+  SOCIAL(NeedConfig.SOCIAL, true, Action.PLAY),
+  SLEEP(NeedConfig.SLEEP, false, Action.SLEEP);
+
+  // The number of needs
+  public static final int COUNT = values().length;
+  // The need boosted by each action, by action ordinal
+  private static final Need[] BY_ACTION = new Need[Action.values().length];
+
+  static {
+    for (Need need : values()) {
+      BY_ACTION[need.boostedBy.ordinal()] = need;
+    }
+  }
+
+  private final NeedLimits limits;
+  private final boolean rising;
+  private final Action boostedBy;
+
+  Need(NeedLimits limits, boolean rising, Action boostedBy) {
+    this.limits = limits;
+    this.rising = rising;
+    this.boostedBy = boostedBy;
+  }
+
+  public NeedLimits limits() {
+    return limits;
+  }
+
+  /**
+   * Returns whether the need gets worse as it rises, like hunger, rather
+   * than as it falls, like sleep. A need is best at the far end of its
+   * limits and deadly at this end.
+   *
+   * @return true if higher values are worse
+   */
+  public boolean rising() {
+    return rising;
+  }
+
+  public Action boostedBy() {
+    return boostedBy;
+  }
+
+  /**
+   * Returns the name of the need as shown to users.
+   *
+   * @return the capitalized name, such as "Hunger"
+   */
+  public String label() {
+    return name().charAt(0) + name().substring(1).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the best value of the need within the given limits.
+   *
+   * @param limits the limits of the need
+   * @return the minimum of a rising need, the maximum otherwise
+   */
+  public int best(NeedLimits limits) {
+    return rising ? limits.min() : limits.max();
+  }
+
+  /**
+   * Returns the deadly value of the need within the given limits.
+   *
+   * @param limits the limits of the need
+   * @return the maximum of a rising need, the minimum otherwise
+   */
+  public int deadly(NeedLimits limits) {
+    return rising ? limits.max() : limits.min();
+  }
+
+  /**
+   * Returns the need boosted by an action.
+   *
+   * @param action the action
+   * @return the need the action boosts
+   */
+  public static Need of(Action action) {
+    return BY_ACTION[action.ordinal()];
+  }
+}
@@ -4,13 +4,21 @@ package pet;
  * Represents a pet.
  */
 public class Pet implements PetInterface {
-  private static final double HUNGER_NEGLECT_RATIO = 0.25;
-  private static final int HUNGER_STREAK_LIMIT = 3;
-  private static final double SAD_RATIO = 0.5;
-  private final NeedLimits hungerLimits;
-  private final NeedLimits hygieneLimits;
-  private final NeedLimits socialLimits;
-  private final NeedLimits sleepLimits;
+  static final double HUNGER_NEGLECT_RATIO = 0.25;
+  static final int HUNGER_STREAK_LIMIT = 3;
+  static final double SAD_RATIO = 0.5;
+  // Needs change while sleeping: recover sleep, get hungrier and dirtier
+  static final MoodDecayProfile SLEEP_DECAY = new MoodDecayProfile(5, -5, 0, 10);
+  // Returned by the predictions when something will never happen without interaction
+  public static final long NEVER = PetTimeline.NEVER;
+  private static final long UNKNOWN = -1;
+  private static final Need[] NEEDS = Need.values();
+  // Shared strategies, so that mood changes do not allocate
+  private static final MoodStrategy HAPPY_STRATEGY = new HappyMood();
+  private static final MoodStrategy SAD_STRATEGY = new SadMood();
+  // The value of each need, by need ordinal, updated in place on every step
+  private final int[] needs = new int[Need.COUNT];
+  // Health status view of the needs, created on demand
   private HealthStatus health;
   private MoodEnum mood;
   private int hungerLowStreak;
@@ -18,29 +26,62 @@ public class Pet implements PetInterface {
   private PetState state;
 
   private boolean justWokeUp = false;
+  // Cached predictions, kept valid across steps and cleared by any other change
+  private long deathForecast = UNKNOWN;
+  private long sadForecast = UNKNOWN;
+  // Where transitions are published, if anywhere
+  private PetEventBus events;
+  // Identifies the pet in published events, -1 if not set
+  private int id = -1;
+  // Where the death prediction is indexed, if anywhere
+  private AtRiskIndex atRisk;
+  // Whether transitions go unreported, for pets that only compute the next state
+  private boolean quiet;
 
   /**
    * Constructs a new Pet object with default values.
    */
   public Pet() {
-    this.sleepLimits = NeedConfig.SLEEP;
-    this.hungerLimits = NeedConfig.HUNGER;
-    this.hygieneLimits = NeedConfig.HYGIENE;
-    this.socialLimits = NeedConfig.SOCIAL;
-    this.health =
-        new HealthStatus(hungerLimits.min(), hygieneLimits.max(),
-            socialLimits.min(), sleepLimits.max());
+    // every need starts at its best
+    for (Need need : NEEDS) {
+      needs[need.ordinal()] = need.best(need.limits());
+    }
     this.mood = MoodEnum.HAPPY;
     this.hungerLowStreak = 0;
-    this.moodStrategy = new HappyMood();
+    this.moodStrategy = HAPPY_STRATEGY;
     this.state = PetState.Active;
   }
 
+  /**
+   * Constructs a pet that reports none of its transitions: it publishes,
+   * counts and records nothing, so that its caller can report only the
+   * transitions that take effect.
+   *
+   * @return the new pet, with default values
+   */
+  static Pet scratch() {
+    Pet pet = new Pet();
+    pet.quiet = true;
+    return pet;
+  }
+
   @Override
   public void step() {
+    PetMetrics metrics = quiet ? null : PetMetrics.active();
+    boolean timed = metrics != null && metrics.takeStepSample();
+    long start = timed ? System.nanoTime() : 0;
+    stepOnce();
+    if (timed) {
+      metrics.recordStep(System.nanoTime() - start);
+    }
+  }
+
+  private void stepOnce() {
     if (isDead()) {
       return;
     }
+    long death = deathForecast;
+    long sadIn = sadForecast;
     if (state == PetState.Sleeping) {
       applySleepStep();
     } else {
@@ -48,6 +89,86 @@ public class Pet implements PetInterface {
     }
     updateMood();
     updateDeath();
+    // stepping is what the predictions assume, so they stay valid
+    shiftForecasts(death, sadIn, 1);
+  }
+
+  /**
+   * Advances time by the given number of steps, as if {@link #step()} was
+   * called that many times, but in time proportional to the number of mood,
+   * streak and death thresholds crossed rather than to the number of steps.
+   *
+   * @param ticks the number of steps to advance
+   */
+  @Override
+  public void advance(long ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("Invalid number of ticks: " + ticks);
+    }
+    if (isDead() || ticks == 0) {
+      return;
+    }
+    TickEvent event = new TickEvent();
+    event.begin();
+    long death = deathForecast;
+    long sadIn = sadForecast;
+    PetTimeline timeline = new PetTimeline(this);
+    timeline.advance(ticks);
+    for (int n = 0; n < Need.COUNT; n++) {
+      setNeed(n, timeline.getNeed(n));
+    }
+    boolean warned = isHungryWarning();
+    hungerLowStreak = timeline.getStreak();
+    if (!warned && isHungryWarning()) {
+      warnHungry();
+    }
+    changeMood(timeline.getMood());
+    changeState(timeline.getState());
+    shiftForecasts(death, sadIn, ticks);
+    if (!quiet && event.shouldCommit()) {
+      event.petId = id;
+      event.pets = 1;
+      event.ticks = ticks;
+      event.commit();
+    }
+  }
+
+  /**
+   * Returns the number of steps until {@link #updateDeath()} marks the pet
+   * as dead, assuming nobody interacts with it.
+   * The result is cached and kept up to date by {@link #step()}, so calling
+   * this on every tick costs a full prediction only after an interaction.
+   *
+   * @return the number of steps, 0 if the pet is dead, or {@link #NEVER}
+   */
+  public long ticksUntilDeath() {
+    if (deathForecast == UNKNOWN) {
+      deathForecast = new PetTimeline(this).ticksUntilDead();
+    }
+    return deathForecast;
+  }
+
+  /**
+   * Returns the number of steps until {@link #updateMood()} switches the pet
+   * to {@link MoodEnum#SAD}, assuming nobody interacts with it.
+   * Cached like {@link #ticksUntilDeath()}.
+   *
+   * @return the number of steps, 0 if the pet is sad, or {@link #NEVER} if it
+   *     dies or stays happy first
+   */
+  public long ticksUntilSad() {
+    if (sadForecast == UNKNOWN) {
+      sadForecast = new PetTimeline(this).ticksUntilSad();
+    }
+    return sadForecast;
+  }
+
+  // Moves predictions made before the given number of steps forward in time
+  private void shiftForecasts(long death, long sadIn, long ticks) {
+    deathForecast = death == UNKNOWN || death == NEVER ? death : Math.max(0, death - ticks);
+    // a sad pet can cheer up while sleeping, so only predictions still ahead carry over
+    sadForecast = sadIn == UNKNOWN || sadIn == NEVER ? sadIn
+        : sadIn >= ticks ? sadIn - ticks : UNKNOWN;
   }
 
   /**
@@ -55,26 +176,47 @@ public class Pet implements PetInterface {
    */
   private void applySleepStep() {
     // pet will recover some sleep, get hungrier and dirtier while sleeping
-    int sleep = PetUtils.clamp(health.getSleep() + 10, sleepLimits);
-    int hunger = PetUtils.clamp(health.getHunger() + 5, hungerLimits);
-    int hygiene = PetUtils.clamp(health.getHygiene() - 5, hygieneLimits);
-    this.health = new HealthStatus(hunger, hygiene, health.getSocial(), sleep);
+    decay(SLEEP_DECAY);
   }
 
 
   // toggle the sleep state of the pet
   private void toggleSleep() {
     if (state == PetState.Sleeping) {
-      setState(PetState.Active);
+      changeState(PetState.Active);
       justWokeUp = true;
     } else {
-      setState(PetState.Sleeping);
+      changeState(PetState.Sleeping);
       justWokeUp = false;
     }
   }
 
   @Override
   public void interactWith(Action action) {
+    InteractionEvent event = new InteractionEvent();
+    event.begin();
+    MoodEnum oldMood = mood;
+    PetState oldState = state;
+    PetMetrics metrics = quiet ? null : PetMetrics.active();
+    boolean timed = metrics != null && metrics.takeInteractSample();
+    long start = timed ? System.nanoTime() : 0;
+    respondTo(action);
+    if (timed) {
+      metrics.recordInteraction(System.nanoTime() - start);
+    }
+    reindex();
+    if (!quiet && event.shouldCommit()) {
+      event.petId = id;
+      event.action = action.name();
+      event.oldMood = oldMood.name();
+      event.newMood = mood.name();
+      event.oldState = oldState.name();
+      event.newState = state.name();
+      event.commit();
+    }
+  }
+
+  private void respondTo(Action action) {
     if (isDead()) {
       return;
     }
@@ -104,62 +246,143 @@ public class Pet implements PetInterface {
 
   @Override
   public HealthStatus getHealth() {
+    if (health == null) {
+      health = new HealthStatus(needs);
+    }
     return health;
   }
 
   public void setHealth(HealthStatus health) {
+    for (Need need : NEEDS) {
+      needs[need.ordinal()] = health.get(need);
+    }
     this.health = health;
+    clearForecasts();
+    reindex();
   }
 
-  @Override
-  public MoodEnum getMood() {
-    return mood;
+  // Updates the index after a change that is not a step, which the prediction did not assume
+  private void reindex() {
+    if (atRisk != null) {
+      atRisk.update(id, ticksUntilDeath());
+    }
   }
 
-  @Override
-  public void setMood(MoodEnum mood) {
-    this.mood = mood;
-    this.moodStrategy = (mood == MoodEnum.HAPPY) ? new HappyMood() : new SadMood();
+  /**
+   * Returns the value of every need, in the order of {@link Need}. The array
+   * is the one the pet updates in place, so it must not be modified or kept.
+   *
+   * @return the needs of the pet
+   */
+  int[] getNeeds() {
+    return needs;
   }
 
-  @Override
-  public int getHunger() {
-    return health.getHunger();
+  /**
+   * Returns the value of one need.
+   *
+   * @param need the ordinal of the need
+   * @return the value of the need
+   */
+  int getNeed(int need) {
+    return needs[need];
   }
 
-  @Override
-  public int getHygiene() {
-    return health.getHygiene();
+  /**
+   * Sets the value of one need, without allocating.
+   *
+   * @param need  the ordinal of the need
+   * @param value the new value of the need
+   */
+  void setNeed(int need, int value) {
+    if (needs[need] != value) {
+      needs[need] = value;
+      needsChanged();
+    }
   }
 
-  @Override
-  public int getSocial() {
-    return health.getSocial();
+  /**
+   * Applies a decay profile to the needs, without allocating.
+   *
+   * @param profile the decay profile to apply
+   */
+  void decay(MoodDecayProfile profile) {
+    PetUtils.applyDecay(needs, profile);
+    needsChanged();
   }
 
-  @Override
-  public int getSleep() {
-    return health.getSleep();
+  private void needsChanged() {
+    health = null;
+    clearForecasts();
   }
 
   @Override
-  public NeedLimits getHungerLimits() {
-    return hungerLimits;
+  public MoodEnum getMood() {
+    return mood;
   }
 
   @Override
-  public NeedLimits getHygieneLimits() {
-    return hygieneLimits;
+  public void setMood(MoodEnum mood) {
+    changeMood(mood);
+    reindex();
+  }
+
+  // Changes the mood while stepping or interacting, leaving the index to the caller
+  private void changeMood(MoodEnum mood) {
+    if (mood != this.mood && !quiet) {
+      reportMoodChange(events, id, this.mood, mood, state);
+    }
+    assignMood(mood);
+  }
+
+  /**
+   * Publishes, counts and records a change of mood.
+   *
+   * @param events where to publish the change, or null
+   * @param id     the id of the pet
+   * @param from   the mood before the change
+   * @param to     the mood after the change
+   * @param state  the state of the pet when the mood changed
+   */
+  static void reportMoodChange(PetEventBus events, int id, MoodEnum from, MoodEnum to,
+                               PetState state) {
+    if (events != null) {
+      events.publish(PetEventType.MOOD_CHANGED, id, to.ordinal());
+    }
+    PetMetrics metrics = PetMetrics.active();
+    if (metrics != null) {
+      metrics.countMoodChanges(1);
+    }
+    MoodChangeEvent event = new MoodChangeEvent();
+    if (event.shouldCommit()) {
+      event.petId = id;
+      event.oldMood = from.name();
+      event.newMood = to.name();
+      event.state = state.name();
+      event.commit();
+    }
+  }
+
+  private void assignMood(MoodEnum mood) {
+    this.mood = mood;
+    // the other moods of the default species decay and respond like the sad one
+    this.moodStrategy = (mood == MoodEnum.HAPPY) ? HAPPY_STRATEGY : SAD_STRATEGY;
+    clearForecasts();
+  }
+
+  private void clearForecasts() {
+    deathForecast = UNKNOWN;
+    sadForecast = UNKNOWN;
   }
 
   @Override
-  public NeedLimits getSocialLimits() {
-    return socialLimits;
+  public int getNeed(Need need) {
+    return needs[need.ordinal()];
   }
 
   @Override
-  public NeedLimits getSleepLimits() {
-    return sleepLimits;
+  public NeedLimits getLimits(Need need) {
+    return need.limits();
   }
 
   @Override
@@ -169,16 +392,26 @@ public class Pet implements PetInterface {
 
   @Override
   public void setState(PetState state) {
+    changeState(state);
+    reindex();
+  }
+
+  // Changes the state while stepping or interacting, leaving the index to the caller
+  private void changeState(PetState state) {
+    if (state != this.state && !quiet) {
+      reportStateChange(events, id, this.state, state, mood, needs);
+    }
     this.state = state;
+    clearForecasts();
   }
 
   @Override
   public void updateDeath() {
-    if (health.getHunger() == hungerLimits.max()
-        || health.getHygiene() == hygieneLimits.min()
-        || health.getSocial() == socialLimits.max()
-        || health.getSleep() == sleepLimits.min()) {
-      setState(PetState.Dead);
+    for (Need need : NEEDS) {
+      if (getNeed(need) == need.deadly(need.limits())) {
+        changeState(PetState.Dead);
+        return;
+      }
     }
   }
 
@@ -190,13 +423,125 @@ public class Pet implements PetInterface {
 
 
   private void updateStreaks() {
-    if (getHunger() >= hungerLimits.max() * HUNGER_NEGLECT_RATIO) {
+    if (getHunger() >= SpeciesProfile.DEFAULT.rules[SpeciesProfile.STREAK_THRESHOLD]) {
       hungerLowStreak++;
+      if (hungerLowStreak == HUNGER_STREAK_LIMIT) {
+        warnHungry();
+      }
     } else {
       hungerLowStreak = 0;
     }
   }
 
+  /**
+   * Publishes, counts and records a change of state: a death, or a pet
+   * falling asleep or waking up.
+   *
+   * @param events where to publish the change, or null
+   * @param id     the id of the pet
+   * @param from   the state before the change
+   * @param to     the state after the change
+   * @param mood   the mood of the pet when the state changed
+   * @param needs  the value of each need when the state changed
+   */
+  static void reportStateChange(PetEventBus events, int id, PetState from, PetState to,
+                                MoodEnum mood, int[] needs) {
+    PetMetrics metrics = PetMetrics.active();
+    if (to == PetState.Dead) {
+      if (events != null) {
+        events.publish(PetEventType.DIED, id, 0);
+      }
+      if (metrics != null) {
+        metrics.countDeaths(1);
+      }
+      DeathEvent event = new DeathEvent();
+      if (event.shouldCommit()) {
+        event.petId = id;
+        event.oldState = from.name();
+        event.mood = mood.name();
+        event.needs = new HealthStatus(needs).describe();
+        event.commit();
+      }
+    } else if (to == PetState.Sleeping || from == PetState.Sleeping) {
+      if (events != null) {
+        events.publish(PetEventType.SLEEP_TOGGLED, id, to.ordinal());
+      }
+      if (metrics != null) {
+        metrics.countSleepToggles(1);
+      }
+    }
+  }
+
+  private void warnHungry() {
+    if (!quiet) {
+      reportHungryWarning(events, id, hungerLowStreak);
+    }
+  }
+
+  /**
+   * Publishes and counts a hungry warning.
+   *
+   * @param events where to publish the warning, or null
+   * @param id     the id of the pet
+   * @param streak the hunger streak of the pet
+   */
+  static void reportHungryWarning(PetEventBus events, int id, int streak) {
+    if (events != null) {
+      events.publish(PetEventType.HUNGRY_WARNING, id, streak);
+    }
+    PetMetrics metrics = PetMetrics.active();
+    if (metrics != null) {
+      metrics.countHungryWarnings(1);
+    }
+  }
+
+  /**
+   * Publishes the transitions of this pet from now on: mood changes, sleep
+   * toggles, hungry warnings and death. {@link #advance(long)} publishes only
+   * the difference between the pet before and after the whole advance.
+   *
+   * @param bus   the bus to publish to, or null to stop publishing
+   * @param petId the id the events are published with
+   */
+  public void publishTo(PetEventBus bus, int petId) {
+    this.events = bus;
+    this.id = petId;
+  }
+
+  /**
+   * Keeps the death prediction of this pet up to date in the given index,
+   * under the id of the pet. Steps leave the predicted tick of death
+   * unchanged, so only {@link #interactWith(Action)},
+   * {@link #setHealth(HealthStatus)}, {@link #setMood(MoodEnum)} and
+   * {@link #setState(PetState)} update the index, and not the changes of
+   * mood and state made while stepping; whoever steps the pets advances it
+   * with {@link AtRiskIndex#advance(long)}.
+   *
+   * @param index the index to keep up to date, or null to stop
+   */
+  public void trackIn(AtRiskIndex index) {
+    if (index != null) {
+      if (id < 0) {
+        throw new IllegalStateException("Pet has no id");
+      }
+      index.update(id, ticksUntilDeath());
+    }
+    this.atRisk = index;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Sets the id that identifies this pet in events and flight recordings.
+   *
+   * @param id the id of the pet
+   */
+  public void setId(int id) {
+    this.id = id;
+  }
+
   /**
    * Updates the mood of the pet based on its health status.
    */
@@ -205,16 +550,8 @@ public class Pet implements PetInterface {
       return;
     }
     updateStreaks();
-    if (hungerLowStreak >= HUNGER_STREAK_LIMIT) {
-      setMood(MoodEnum.SAD);
-    } else if (health.getHunger() >= hungerLimits.max() * SAD_RATIO
-        || health.getHygiene() <= hygieneLimits.max() * SAD_RATIO
-        || health.getSocial() >= socialLimits.max() * SAD_RATIO
-        || health.getSleep() <= sleepLimits.max() * SAD_RATIO) {
-      setMood(MoodEnum.SAD);
-    } else {
-      setMood(MoodEnum.HAPPY);
-    }
+    // sad once hungry for too long or past the sad ratio of any need, happy otherwise
+    changeMood(SpeciesProfile.DEFAULT.nextMood(mood, needs, hungerLowStreak));
   }
 
   /**
@@ -235,6 +572,35 @@ public class Pet implements PetInterface {
     return justWokeUp;
   }
 
+  /**
+   * Returns the number of consecutive updates the pet has spent hungry.
+   *
+   * @return the hunger streak
+   */
+  int getHungerLowStreak() {
+    return hungerLowStreak;
+  }
+
+  /**
+   * Restores the full state of the pet, for example from a snapshot.
+   *
+   * @param needs           the value of each need, in the order of {@link Need}, copied
+   * @param mood            the mood
+   * @param state           the state
+   * @param hungerLowStreak the hunger streak
+   * @param justWokeUp      whether the pet just woke up
+   */
+  void restore(int[] needs, MoodEnum mood, PetState state, int hungerLowStreak,
+               boolean justWokeUp) {
+    // not a transition of the pet, so nothing is published or counted
+    System.arraycopy(needs, 0, this.needs, 0, Need.COUNT);
+    needsChanged();
+    assignMood(mood);
+    this.state = state;
+    this.hungerLowStreak = hungerLowStreak;
+    this.justWokeUp = justWokeUp;
+  }
+
   /**
    * Checks if the pet is hungry and needs to be fed.
    *
@@ -0,0 +1,230 @@
+package pet;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers pet transition events to subscribers through a preallocated ring buffer.
+ *
+ * <p>Each event is packed into one long: the pet id (32 bits), the
+ * {@link PetEventType} ordinal (8 bits) and a value (24 bits). Any number of
+ * threads may publish. A publisher claims a slot with a compare-and-set on
+ * the cursor, writes the event and then marks the slot with its sequence.
+ * Every subscriber has its own thread, which handles all events published
+ * since its last batch before recording how far it got, so a busy
+ * subscriber catches up in large batches.
+ *
+ * <p>Publishing never blocks and never allocates. When the slowest subscriber
+ * is a full ring behind, new events are dropped and counted instead.
+ */
+public class PetEventBus implements AutoCloseable {
+  private static final PetEventType[] TYPES = PetEventType.values();
+  private static final int TYPE_SHIFT = 24;
+  private static final int VALUE_MASK = 0xFFFFFF;
+  private static final int TYPE_MASK = 0xFF;
+  // How long an idle subscriber spins, then yields, before parking
+  private static final int SPIN_TRIES = 100;
+  private static final int YIELD_TRIES = 100;
+  private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final int capacity;
+  private final int mask;
+  private final long[] events;
+  // The sequence written to each slot, set after the event so readers see a complete event
+  private final AtomicLongArray published;
+  // The last claimed sequence
+  private final AtomicLong cursor = new AtomicLong(-1);
+  private final AtomicLong dropped = new AtomicLong();
+  private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+  // A lower bound of the sequence every subscriber has reached, refreshed when the ring looks full
+  private volatile long gatingCache = -1;
+  private volatile boolean closed;
+
+  /**
+   * Receives the events of a bus on the subscriber's own thread.
+   */
+  public interface EventHandler {
+    /**
+     * Handles one event.
+     *
+     * @param type       the kind of transition
+     * @param petId      the id the pet was attached to the bus with
+     * @param value      the detail of the transition, as described by the type
+     * @param endOfBatch true for the last event currently available, a good
+     *                   time to flush any work batched by the handler
+     */
+    void onEvent(PetEventType type, int petId, int value, boolean endOfBatch);
+  }
+
+  /**
+   * Constructs a bus holding up to the given number of undelivered events.
+   *
+   * @param capacity the size of the ring, a power of two
+   */
+  public PetEventBus(int capacity) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.events = new long[capacity];
+    this.published = new AtomicLongArray(capacity);
+    for (int slot = 0; slot < capacity; slot++) {
+      published.set(slot, -1);
+    }
+  }
+
+  /**
+   * Publishes an event without blocking.
+   *
+   * @param type  the kind of transition
+   * @param petId the id of the pet
+   * @param value the detail of the transition, from 0 to 2^24 - 1
+   * @return true if the event was queued, false if it was dropped because
+   *     a subscriber is a full ring behind
+   */
+  public boolean publish(PetEventType type, int petId, int value) {
+    long sequence;
+    do {
+      sequence = cursor.get() + 1;
+      if (sequence - capacity > gatingCache && sequence - capacity > refreshGating()) {
+        dropped.incrementAndGet();
+        return false;
+      }
+    } while (!cursor.compareAndSet(sequence - 1, sequence));
+    int slot = (int) sequence & mask;
+    events[slot] = (long) petId << 32 | (long) type.ordinal() << TYPE_SHIFT
+        | Math.min(value, VALUE_MASK) & VALUE_MASK;
+    published.lazySet(slot, sequence);
+    return true;
+  }
+
+  private long refreshGating() {
+    long gating = cursor.get();
+    for (Subscription subscription : subscriptions) {
+      gating = Math.min(gating, subscription.sequence.get());
+    }
+    gatingCache = gating;
+    return gating;
+  }
+
+  /**
+   * Starts delivering every event published from now on to the handler,
+   * on a new thread.
+   *
+   * @param name    the name of the subscriber, used for its thread
+   * @param handler the handler of the events
+   */
+  public void subscribe(String name, EventHandler handler) {
+    if (closed) {
+      throw new IllegalStateException("Event bus is closed");
+    }
+    Subscription subscription = new Subscription(handler);
+    subscriptions.add(subscription);
+    subscription.sequence.set(cursor.get());
+    Thread thread = new Thread(subscription::run, "pet-events-" + name);
+    thread.setDaemon(true);
+    subscription.thread = thread;
+    thread.start();
+  }
+
+  /**
+   * Returns the number of events published so far, including dropped ones.
+   *
+   * @return the number of events
+   */
+  public long getPublished() {
+    return cursor.get() + 1 + dropped.get();
+  }
+
+  /**
+   * Returns the number of events dropped because a subscriber fell behind.
+   *
+   * @return the number of dropped events
+   */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Stops the subscriber threads once they have handled every queued event.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (Subscription subscription : subscriptions) {
+      LockSupport.unpark(subscription.thread);
+    }
+  }
+
+  /**
+   * Waits for the subscriber threads to stop after {@link #close()}.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout
+   * @return true if every thread stopped
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (Subscription subscription : subscriptions) {
+      long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      subscription.thread.join(Math.max(1, left));
+      if (subscription.thread.isAlive()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // One subscriber and the sequence of the last event it handled
+  private final class Subscription {
+    final EventHandler handler;
+    final AtomicLong sequence = new AtomicLong(Long.MAX_VALUE);
+    Thread thread;
+
+    Subscription(EventHandler handler) {
+      this.handler = handler;
+    }
+
+    void run() {
+      int idle = 0;
+      long next = sequence.get() + 1;
+      while (true) {
+        long end = next - 1;
+        while (published.get((int) (end + 1) & mask) == end + 1) {
+          end++;
+        }
+        if (end < next) {
+          if (closed && cursor.get() < next) {
+            return;
+          }
+          idle = idleWait(idle);
+          continue;
+        }
+        idle = 0;
+        for (long s = next; s <= end; s++) {
+          long event = events[(int) s & mask];
+          handler.onEvent(TYPES[(int) (event >>> TYPE_SHIFT) & TYPE_MASK], (int) (event >>> 32),
+              (int) event & VALUE_MASK, s == end);
+        }
+        sequence.lazySet(end);
+        next = end + 1;
+      }
+    }
+
+    private int idleWait(int idle) {
+      if (idle < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(this, PARK_NANOS);
+      }
+      return idle + 1;
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package pet;
+
+/**
+ * The kinds of transitions a pet publishes to a {@link PetEventBus}.
+ */
+public enum PetEventType {
+  // The mood changed, the value is the new mood ordinal
+  MOOD_CHANGED,
+  // The pet fell asleep or woke up, the value is the new state ordinal
+  SLEEP_TOGGLED,
+  // The pet became hungry enough to warn about, the value is the hunger streak
+  HUNGRY_WARNING,
+  // The pet died, the value is 0
+  DIED
+}
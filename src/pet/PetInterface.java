@@ -6,6 +6,8 @@ package pet;
 public interface PetInterface {
   void step();
 
+  void advance(long ticks);
+
   void interactWith(Action action);
 
   HealthStatus getHealth();
@@ -14,21 +16,53 @@ public interface PetInterface {
 
   void setMood(MoodEnum mood);
 
-  int getHunger();
-
-  int getHygiene();
-
-  int getSocial();
-
-  int getSleep();
-
-  NeedLimits getHungerLimits();
-
-  NeedLimits getHygieneLimits();
-
-  NeedLimits getSocialLimits();
-
-  NeedLimits getSleepLimits();
+  /**
+   * Returns the value of a need.
+   *
+   * @param need the need
+   * @return the value of the need
+   */
+  int getNeed(Need need);
+
+  /**
+   * Returns the limits of a need.
+   *
+   * @param need the need
+   * @return the limits of the need
+   */
+  NeedLimits getLimits(Need need);
+
+  default int getHunger() {
+    return getNeed(Need.HUNGER);
+  }
+
+  default int getHygiene() {
+    return getNeed(Need.HYGIENE);
+  }
+
+  default int getSocial() {
+    return getNeed(Need.SOCIAL);
+  }
+
+  default int getSleep() {
+    return getNeed(Need.SLEEP);
+  }
+
+  default NeedLimits getHungerLimits() {
+    return getLimits(Need.HUNGER);
+  }
+
+  default NeedLimits getHygieneLimits() {
+    return getLimits(Need.HYGIENE);
+  }
+
+  default NeedLimits getSocialLimits() {
+    return getLimits(Need.SOCIAL);
+  }
+
+  default NeedLimits getSleepLimits() {
+    return getLimits(Need.SLEEP);
+  }
 
   PetState getState();
 
@@ -0,0 +1,266 @@
+package pet;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Counters and latency histograms of the simulation.
+ *
+ * <p>Metrics are off until {@link #enable()} is called. While they are off,
+ * instrumented code only reads one volatile field. Counters are striped
+ * {@link LongAdder}s, so threads stepping different pets do not contend.
+ * A single step costs only a few nanoseconds, less than one counter update,
+ * so steps and interactions are counted once per batch by the code driving
+ * the pets, such as {@link PopulationTicker} and {@link PetPopulation}, and
+ * {@link Pet} itself only counts its rare transitions. For the same reason,
+ * latencies are sampled: a sampler thread raises a flag every millisecond,
+ * and the next call to see it is timed. Only living pets count as ticks,
+ * since stepping a dead pet does nothing.
+ */
+public class PetMetrics implements PetMetricsMXBean {
+  // How often a call is picked for timing
+  static final long SAMPLE_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final String OBJECT_NAME = "pet:type=PetMetrics";
+  private static final Action[] ACTIONS = Action.values();
+  private static final Object LOCK = new Object();
+  private static PetMetrics instance;
+  private static volatile PetMetrics active;
+
+  private final LongAdder ticks = new LongAdder();
+  private final LongAdder[] interactions = new LongAdder[ACTIONS.length];
+  private final LongAdder moodChanges = new LongAdder();
+  private final LongAdder sleepToggles = new LongAdder();
+  private final LongAdder hungryWarnings = new LongAdder();
+  private final LongAdder deaths = new LongAdder();
+  private final LatencyHistogram stepLatency = new LatencyHistogram();
+  private final LatencyHistogram interactLatency = new LatencyHistogram();
+  private final LatencyHistogram viewLatency = new LatencyHistogram();
+  // Raised by the sampler thread, and lowered by the next call that gets timed
+  private volatile boolean stepSampleDue;
+  private volatile boolean interactSampleDue;
+
+  PetMetrics() {
+    for (int i = 0; i < interactions.length; i++) {
+      interactions[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Turns metrics on for the whole application.
+   *
+   * @return the metrics being collected, the same ones every time
+   */
+  public static PetMetrics enable() {
+    synchronized (LOCK) {
+      if (instance == null) {
+        instance = new PetMetrics();
+        Thread sampler = new Thread(instance::runSampler, "pet-metrics-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+        FlightRecorder.addPeriodicEvent(CountersEvent.class, PetMetrics::emitCounters);
+      }
+      active = instance;
+      return instance;
+    }
+  }
+
+  /**
+   * Turns metrics off. Values collected so far are kept.
+   */
+  public static void disable() {
+    active = null;
+  }
+
+  /**
+   * Returns the metrics being collected.
+   *
+   * @return the metrics, or null if they are off
+   */
+  public static PetMetrics active() {
+    return active;
+  }
+
+  // Called by the flight recorder at the period of the event
+  private static void emitCounters() {
+    PetMetrics metrics = active;
+    if (metrics == null) {
+      return;
+    }
+    CountersEvent event = new CountersEvent();
+    event.ticks = metrics.ticks.sum();
+    for (LongAdder interaction : metrics.interactions) {
+      event.interactions += interaction.sum();
+    }
+    event.moodChanges = metrics.moodChanges.sum();
+    event.sleepToggles = metrics.sleepToggles.sum();
+    event.hungryWarnings = metrics.hungryWarnings.sum();
+    event.deaths = metrics.deaths.sum();
+    event.commit();
+  }
+
+  private void runSampler() {
+    while (true) {
+      LockSupport.parkNanos(SAMPLE_PERIOD_NANOS);
+      if (active == this) {
+        stepSampleDue = true;
+        interactSampleDue = true;
+      }
+    }
+  }
+
+  // Checks if this call should be timed. Racing threads may both time theirs, which is harmless.
+  boolean takeStepSample() {
+    if (stepSampleDue) {
+      stepSampleDue = false;
+      return true;
+    }
+    return false;
+  }
+
+  boolean takeInteractSample() {
+    if (interactSampleDue) {
+      interactSampleDue = false;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Registers the metrics with the platform MBean server as {@value #OBJECT_NAME}.
+   * Registering twice has no effect.
+   */
+  public void registerMBean() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+          new ObjectName(OBJECT_NAME));
+    } catch (InstanceAlreadyExistsException e) {
+      // already visible
+    } catch (JMException e) {
+      throw new IllegalStateException("Cannot register metrics", e);
+    }
+  }
+
+  /**
+   * Counts steps of living pets.
+   *
+   * @param count the number of steps
+   */
+  public void countTicks(long count) {
+    ticks.add(count);
+  }
+
+  /**
+   * Counts interactions of one kind.
+   *
+   * @param action the action
+   * @param count  the number of interactions
+   */
+  public void countInteractions(Action action, long count) {
+    interactions[action.ordinal()].add(count);
+  }
+
+  void countMoodChanges(long count) {
+    moodChanges.add(count);
+  }
+
+  void countSleepToggles(long count) {
+    sleepToggles.add(count);
+  }
+
+  void countHungryWarnings(long count) {
+    hungryWarnings.add(count);
+  }
+
+  void countDeaths(long count) {
+    deaths.add(count);
+  }
+
+  void recordStep(long nanos) {
+    stepLatency.record(nanos);
+  }
+
+  void recordInteraction(long nanos) {
+    interactLatency.record(nanos);
+  }
+
+  /**
+   * Records how long one update of the pet window took.
+   *
+   * @param nanos the time taken, in nanoseconds
+   */
+  public void recordViewUpdate(long nanos) {
+    viewLatency.record(nanos);
+  }
+
+  public LatencyHistogram getStepLatency() {
+    return stepLatency;
+  }
+
+  public LatencyHistogram getInteractLatency() {
+    return interactLatency;
+  }
+
+  public LatencyHistogram getViewLatency() {
+    return viewLatency;
+  }
+
+  @Override
+  public long getTicks() {
+    return ticks.sum();
+  }
+
+  @Override
+  public Map<String, Long> getCounters() {
+    Map<String, Long> counters = new LinkedHashMap<>();
+    counters.put("ticks", ticks.sum());
+    for (Action action : ACTIONS) {
+      counters.put("interactions." + action, interactions[action.ordinal()].sum());
+    }
+    counters.put("moodChanges", moodChanges.sum());
+    counters.put("sleepToggles", sleepToggles.sum());
+    counters.put("hungryWarnings", hungryWarnings.sum());
+    counters.put("deaths", deaths.sum());
+    return counters;
+  }
+
+  @Override
+  public Map<String, Double> getLatencyMicros() {
+    Map<String, Double> latencies = new LinkedHashMap<>();
+    putLatencies(latencies, "step", stepLatency);
+    putLatencies(latencies, "interactWith", interactLatency);
+    putLatencies(latencies, "updateView", viewLatency);
+    return latencies;
+  }
+
+  private static void putLatencies(Map<String, Double> latencies, String name,
+                                   LatencyHistogram histogram) {
+    latencies.put(name + ".mean", histogram.getMean() / 1e3);
+    latencies.put(name + ".p50", histogram.getPercentile(50) / 1e3);
+    latencies.put(name + ".p99", histogram.getPercentile(99) / 1e3);
+    latencies.put(name + ".max", histogram.getMax() / 1e3);
+  }
+
+  @Override
+  public String getReport() {
+    StringBuilder report = new StringBuilder();
+    getCounters().forEach((name, value) ->
+        report.append(String.format("%-22s %d%n", name, value)));
+    report.append(String.format("%-22s %s%n", "step", stepLatency));
+    report.append(String.format("%-22s %s%n", "interactWith", interactLatency));
+    report.append(String.format("%-22s %s%n", "updateView", viewLatency));
+    return report.toString();
+  }
+
+  @Override
+  public String toString() {
+    return getReport();
+  }
+}
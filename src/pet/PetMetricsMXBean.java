@@ -0,0 +1,31 @@
+package pet;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link PetMetrics}, as seen through JMX.
+ */
+public interface PetMetricsMXBean {
+  long getTicks();
+
+  /**
+   * Returns every counter by name, such as "interactions.FEED" or "deaths".
+   *
+   * @return the counters
+   */
+  Map<String, Long> getCounters();
+
+  /**
+   * Returns the latency statistics in microseconds by name, such as "step.p99".
+   *
+   * @return the latency statistics
+   */
+  Map<String, Double> getLatencyMicros();
+
+  /**
+   * Returns the same text as the periodic dump.
+   *
+   * @return the report
+   */
+  String getReport();
+}
@@ -0,0 +1,713 @@
+package pet;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Represents a population of pets stored as parallel primitive arrays, with
+ * one column per {@link Need}. Each pet is identified by its index, and
+ * stepping the population follows the same rules as {@link Pet#step()}
+ * without allocating per pet. Decay, clamping, moods and deaths are loops
+ * over the need columns, so every need costs one more pass over a block of
+ * pets and nothing else.
+ *
+ * <p>Every pet belongs to one of the {@link SpeciesProfile species} of the
+ * population, stored as a column like the needs. The compiled delta tables
+ * of the species are concatenated, so the deltas of a pet are found by
+ * offsetting its mood, state and action by its species. A population of a
+ * single species steps through the decay kernel of that species instead,
+ * unless its unhappy moods decay differently. The next mood of a pet is
+ * looked up in the mood transition table of its species.
+ */
+public class PetPopulation {
+  static final MoodEnum[] MOODS = MoodEnum.values();
+  static final PetState[] STATES = PetState.values();
+  static final byte HAPPY = (byte) MoodEnum.HAPPY.ordinal();
+  static final byte SAD = (byte) MoodEnum.SAD.ordinal();
+  static final byte ACTIVE = (byte) PetState.Active.ordinal();
+  static final byte SLEEPING = (byte) PetState.Sleeping.ordinal();
+  static final byte DEAD = (byte) PetState.Dead.ordinal();
+  // Decay is applied a block at a time, then moods and deaths are settled while still in cache
+  private static final int BLOCK_SIZE = 1024;
+  private static final Action[] ACTIONS = Action.values();
+  private static final int NEED_COUNT = SpeciesProfile.NEED_COUNT;
+  private static final int STATE_COUNT = SpeciesProfile.STATE_COUNT;
+  private static final int ACTION_COUNT = SpeciesProfile.ACTION_COUNT;
+  // Transitions reported by settle(), counted for the metrics
+  private static final int MOOD_CHANGED = 1;
+  private static final int DIED = 2;
+  private static final int WARNED = 4;
+  private static final int HUNGER = Need.HUNGER.ordinal();
+
+  private final int size;
+  // needs[need][pet] is the value of a need of a pet
+  private final int[][] needs;
+  private final byte[] mood;
+  private final byte[] state;
+  private final int[] hungerLowStreak;
+  private final boolean[] justWokeUp;
+  // The index of each pet's species in profiles
+  private final byte[] species;
+  private final SpeciesProfile[] profiles;
+  // The compiled tables of every species, one after the other
+  private final int[] stepTable;
+  private final int[] actionTable;
+  private final int[] neglectTable;
+  private final int[] limitTable;
+  private final SpeciesProfile.Rules[] speciesRules;
+  // The kernel stepping every pet, if there is one species and it has a kernel
+  private final DecayKernel kernel;
+  // Where the death predictions are indexed, if anywhere
+  private AtRiskIndex atRisk;
+  // The bitmaps kept up to date with the pets, if any
+  private PopulationIndex bitmaps;
+
+  /**
+   * Constructs a new population where every pet starts like a new {@link Pet}.
+   *
+   * @param size the number of pets
+   */
+  public PetPopulation(int size) {
+    this(size, SpeciesProfile.DEFAULT);
+  }
+
+  /**
+   * Constructs a new population of pets of the given species. Every pet
+   * starts as a new pet of the first species, with the needs at their best
+   * limits, and may then be given another one with
+   * {@link #setSpecies(int, SpeciesProfile)}.
+   *
+   * @param size    the number of pets
+   * @param species the species pets may belong to, at least one and at most 128
+   */
+  public PetPopulation(int size, SpeciesProfile... species) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Invalid population size: " + size);
+    }
+    if (species.length == 0 || species.length > Byte.MAX_VALUE + 1) {
+      throw new IllegalArgumentException("Invalid number of species: " + species.length);
+    }
+    this.profiles = species.clone();
+    this.species = new byte[size];
+    this.stepTable = concat(profiles, SpeciesProfile.STEP_SIZE, profile -> profile.stepDeltas);
+    this.actionTable = concat(profiles, SpeciesProfile.ACTION_SIZE,
+        profile -> profile.actionDeltas);
+    this.neglectTable = concat(profiles, SpeciesProfile.NEGLECT_SIZE, profile -> profile.neglect);
+    this.limitTable = concat(profiles, SpeciesProfile.LIMIT_SIZE, profile -> profile.limits);
+    this.speciesRules = new SpeciesProfile.Rules[profiles.length];
+    for (int s = 0; s < profiles.length; s++) {
+      speciesRules[s] = profiles[s].compiled;
+    }
+    this.kernel = profiles.length == 1 ? profiles[0].kernel : null;
+    SpeciesProfile first = profiles[0];
+    this.size = size;
+    this.needs = new int[NEED_COUNT][size];
+    this.mood = new byte[size];
+    this.state = new byte[size];
+    this.hungerLowStreak = new int[size];
+    this.justWokeUp = new boolean[size];
+    for (Need need : Need.values()) {
+      Arrays.fill(needs[need.ordinal()], need.best(first.getLimits(need)));
+    }
+    Arrays.fill(mood, HAPPY);
+    Arrays.fill(state, ACTIVE);
+  }
+
+  /**
+   * Returns the number of pets in the population.
+   *
+   * @return the population size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Advances time for every pet in the population.
+   * Equivalent to calling {@link Pet#step()} on each pet.
+   */
+  public void stepAll() {
+    stepRange(0, size);
+    endTick();
+  }
+
+  /**
+   * Advances time for the pets with indices in {@code [from, to)}.
+   * Disjoint ranges may be stepped concurrently from different threads.
+   * Once every range is stepped, {@link #endTick()} advances the at-risk index.
+   *
+   * @param from the first index, inclusive
+   * @param to   the last index, exclusive
+   */
+  public void stepRange(int from, int to) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException("Invalid range: [" + from + ", " + to + ")");
+    }
+    Transitions transitions = new Transitions();
+    SpeciesProfile.Rules uniform = speciesRules[0];
+    // only living pets are stepped, and counted as ticks
+    long stepped = 0;
+    for (int start = from, end; start < to; start = end) {
+      end = start + Math.min(BLOCK_SIZE, to - start);
+      if (kernel != null) {
+        kernel.apply(needs, mood, state, start, end);
+      } else {
+        decay(start, end);
+      }
+      int living = 0;
+      for (int i = start; i < end; i++) {
+        if (state[i] != DEAD) {
+          // a population of one species never reads its species column
+          SpeciesProfile.Rules rules = profiles.length == 1 ? uniform : speciesRules[species[i]];
+          transitions.add(settle(i, rules));
+          living++;
+        }
+      }
+      stepped += living;
+      // dead pets never change, so a block of them needs no refresh
+      if (bitmaps != null && living > 0) {
+        // the words at the edges of the range may hold pets of other ranges
+        bitmaps.refresh(needs, mood, state, start, end, (from + Long.SIZE - 1) & -Long.SIZE,
+            to & -Long.SIZE);
+      }
+    }
+    PetMetrics metrics = PetMetrics.active();
+    if (metrics != null) {
+      metrics.countTicks(stepped);
+      transitions.report(metrics);
+    }
+  }
+
+  // Applies one step of decay to the pets in [from, to) through the tables of their species
+  private void decay(int from, int to) {
+    for (int i = from; i < to; i++) {
+      int st = state[i];
+      if (st == DEAD) {
+        continue;
+      }
+      int s = species[i];
+      int row = ((s * MOODS.length + mood[i]) * STATE_COUNT + st) * NEED_COUNT;
+      int limit = s * SpeciesProfile.LIMIT_SIZE;
+      for (int n = 0; n < NEED_COUNT; n++) {
+        int[] column = needs[n];
+        column[i] = PetUtils.clamp(column[i] + stepTable[row + n], limitTable[limit + 2 * n],
+            limitTable[limit + 2 * n + 1]);
+      }
+    }
+  }
+
+  /**
+   * Ends a tick stepped with {@link #stepRange(int, int)}, advancing the
+   * clock of the tracked at-risk index.
+   */
+  void endTick() {
+    if (atRisk != null) {
+      atRisk.advance(1);
+    }
+  }
+
+  // Counts the transitions settled during one call, to report them to the metrics at once
+  private static final class Transitions {
+    long moodChanges;
+    long deaths;
+    long warnings;
+    long sleepToggles;
+
+    void add(int flags) {
+      moodChanges += flags & MOOD_CHANGED;
+      deaths += (flags & DIED) >> 1;
+      warnings += (flags & WARNED) >> 2;
+    }
+
+    void report(PetMetrics metrics) {
+      metrics.countMoodChanges(moodChanges);
+      metrics.countDeaths(deaths);
+      metrics.countSleepToggles(sleepToggles);
+      metrics.countHungryWarnings(warnings);
+    }
+  }
+
+  // Applies updateMood() and updateDeath() to a living pet under the rules of its species,
+  // returning the transitions that happened
+  private int settle(int i, SpeciesProfile.Rules rules) {
+    int streak = needs[HUNGER][i] >= rules.streakFrom() ? hungerLowStreak[i] + 1 : 0;
+    hungerLowStreak[i] = streak;
+    int streakLimit = rules.streakLimit();
+    byte next;
+    if (rules.moody()) {
+      next = rules.transitions()[mood[i] * rules.buckets() + bucket(i, rules, streak)];
+    } else {
+      // without conditions of other moods, the table holds sad exactly when the sad bit is set
+      next = streak >= streakLimit || isSad(i, rules) ? SAD : HAPPY;
+    }
+    int flags = (next != mood[i] ? MOOD_CHANGED : 0) | (streak == streakLimit ? WARNED : 0);
+    mood[i] = next;
+    if (isDeadly(i, rules)) {
+      state[i] = DEAD;
+      flags |= DIED;
+    }
+    return flags;
+  }
+
+  // Checks if a need of a pet is past its sad threshold, predicate 1 + n of its species
+  private boolean isSad(int i, SpeciesProfile.Rules rules) {
+    int[] signs = rules.signs();
+    int[] bounds = rules.bounds();
+    for (int n = 0; n < NEED_COUNT; n++) {
+      if (signs[1 + n] * needs[n][i] >= bounds[1 + n]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Checks if a need of a pet has reached its deadly limit
+  private boolean isDeadly(int i, SpeciesProfile.Rules rules) {
+    int[] deadly = rules.deadly();
+    for (int n = 0; n < NEED_COUNT; n++) {
+      if (needs[n][i] == deadly[n]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Returns the bucket of a pet, as SpeciesProfile.bucket() does
+  private int bucket(int i, SpeciesProfile.Rules rules, int streak) {
+    int[] enters = rules.enters();
+    int bucket = 0;
+    for (int e = enters.length - 1; e >= 0; e--) {
+      if (holds(i, rules, enters[e])) {
+        bucket = (e + 1) << SpeciesProfile.ENTERED_SHIFT;
+        break;
+      }
+    }
+    int until = rules.untils()[mood[i]];
+    if (until >= 0 && holds(i, rules, until)) {
+      bucket |= SpeciesProfile.UNTIL_BIT;
+    }
+    if (bucket >>> SpeciesProfile.ENTERED_SHIFT == 0
+        && (streak >= rules.streakLimit() || isSad(i, rules))) {
+      bucket |= SpeciesProfile.SAD_BIT;
+    }
+    return bucket;
+  }
+
+  // Checks if predicate p of the species, on a need, holds for a pet
+  private boolean holds(int i, SpeciesProfile.Rules rules, int p) {
+    return rules.signs()[p] * needs[rules.needs()[p]][i] >= rules.bounds()[p];
+  }
+
+  private static int[] concat(SpeciesProfile[] profiles, int length,
+                              Function<SpeciesProfile, int[]> table) {
+    int[] tables = new int[profiles.length * length];
+    for (int s = 0; s < profiles.length; s++) {
+      System.arraycopy(table.apply(profiles[s]), 0, tables, s * length, length);
+    }
+    return tables;
+  }
+
+  /**
+   * Applies a column of actions, the same as calling {@link Pet#interactWith(Action)}
+   * for each pair of pet index and action in order.
+   *
+   * <p>Actions are applied in waves: the first action of every pet, then the
+   * second one, and so on. Within a wave each pet appears once, so the wave is
+   * grouped by action and every action runs in its own loop, with the boost
+   * looked up in the tables of the pet's species by mood, instead of
+   * dispatched through a {@link MoodStrategy}.
+   *
+   * @param petIds  the index of the pet of each action
+   * @param actions the {@link Action} ordinal of each action
+   * @return the number of actions that reached a pet, excluding those on dead
+   *     pets and the non-sleep actions on sleeping pets
+   */
+  public long applyActions(int[] petIds, byte[] actions) {
+    int count = petIds.length;
+    if (actions.length != count) {
+      throw new IllegalArgumentException("Got " + count + " pet ids for " + actions.length
+          + " actions");
+    }
+    // number each action by how many earlier actions its pet has in the column
+    int[] wave = new int[count];
+    int[] seen = new int[size];
+    int waves = 0;
+    for (int k = 0; k < count; k++) {
+      int id = petIds[k];
+      if (id < 0 || id >= size) {
+        throw new IndexOutOfBoundsException("Invalid pet index: " + id);
+      }
+      if (actions[k] < 0 || actions[k] >= ACTIONS.length) {
+        throw new IllegalArgumentException("Invalid action ordinal: " + actions[k]);
+      }
+      wave[k] = seen[id]++;
+      waves = Math.max(waves, wave[k] + 1);
+    }
+    // stable counting sort by wave, then action
+    int[] starts = new int[waves * ACTIONS.length + 1];
+    for (int k = 0; k < count; k++) {
+      starts[wave[k] * ACTIONS.length + actions[k] + 1]++;
+    }
+    for (int bucket = 1; bucket < starts.length; bucket++) {
+      starts[bucket] += starts[bucket - 1];
+    }
+    int[] order = new int[count];
+    int[] next = starts.clone();
+    for (int k = 0; k < count; k++) {
+      order[next[wave[k] * ACTIONS.length + actions[k]]++] = petIds[k];
+    }
+
+    long applied = 0;
+    Transitions transitions = new Transitions();
+
+    for (int bucket = 0; bucket < starts.length - 1; bucket++) {
+      int from = starts[bucket];
+      int to = starts[bucket + 1];
+      Action action = ACTIONS[bucket % ACTIONS.length];
+      if (action == Action.SLEEP) {
+        int toggled = applySleep(order, from, to, transitions);
+        transitions.sleepToggles += toggled;
+        applied += toggled;
+      } else {
+        applied += applyBoost(order, from, to, Need.of(action).ordinal(), action, transitions);
+      }
+    }
+    if (atRisk != null || bitmaps != null) {
+      // only the pets that were acted on changed, each reindexed once
+      for (int id : petIds) {
+        if (seen[id] != 0) {
+          seen[id] = 0;
+          reindex(id);
+        }
+      }
+    }
+    PetMetrics metrics = PetMetrics.active();
+    if (metrics != null) {
+      for (int bucket = 0; bucket < starts.length - 1; bucket++) {
+        metrics.countInteractions(ACTIONS[bucket % ACTIONS.length],
+            starts[bucket + 1] - starts[bucket]);
+      }
+      transitions.report(metrics);
+    }
+    return applied;
+  }
+
+  // Applies one boosting action to the active pets order[from..to)
+  private int applyBoost(int[] order, int from, int to, int n, Action action,
+                         Transitions transitions) {
+    int[] need = needs[n];
+    int[] hunger = needs[HUNGER];
+    int applied = 0;
+    for (int k = from; k < to; k++) {
+      int i = order[k];
+      if (state[i] != ACTIVE) {
+        continue;
+      }
+      int row = actionRow(i, action);
+      int limit = species[i] * SpeciesProfile.LIMIT_SIZE + 2 * n;
+      int hu = hunger[i];
+      need[i] = PetUtils.clamp(need[i] + actionTable[row * NEED_COUNT + n], limitTable[limit],
+          limitTable[limit + 1]);
+      neglect(i, hu, row);
+      transitions.add(settle(i, speciesRules[species[i]]));
+      applied++;
+    }
+    return applied;
+  }
+
+  // Returns the row of the tables of pet i's species for an action in its mood and state
+  private int actionRow(int i, Action action) {
+    int moodRow = species[i] * MOODS.length + mood[i];
+    return (moodRow * STATE_COUNT + state[i]) * ACTION_COUNT + action.ordinal();
+  }
+
+  // Makes pet i hungrier if the action of the given row neglected it, as in SadMood
+  private void neglect(int i, int hu, int row) {
+    int penalty = neglectTable[row];
+    int s = species[i];
+    if (penalty != 0 && hu < speciesRules[s].neglectBelow()) {
+      int limit = s * SpeciesProfile.LIMIT_SIZE + 2 * HUNGER;
+      needs[HUNGER][i] = PetUtils.clamp(hu + penalty, limitTable[limit], limitTable[limit + 1]);
+    }
+  }
+
+  // Toggles the sleep of the living pets order[from..to), boosting the ones falling asleep
+  private int applySleep(int[] order, int from, int to, Transitions transitions) {
+    int[] sleep = needs[Need.SLEEP.ordinal()];
+    int[] hunger = needs[HUNGER];
+    int applied = 0;
+    for (int k = from; k < to; k++) {
+      int i = order[k];
+      if (state[i] == DEAD) {
+        continue;
+      }
+      if (state[i] == SLEEPING) {
+        state[i] = ACTIVE;
+        justWokeUp[i] = true;
+      } else {
+        // the boost of falling asleep is in the row of the active pet
+        int row = actionRow(i, Action.SLEEP);
+        int limit = species[i] * SpeciesProfile.LIMIT_SIZE + 2 * Need.SLEEP.ordinal();
+        state[i] = SLEEPING;
+        justWokeUp[i] = false;
+        int hu = hunger[i];
+        sleep[i] = PetUtils.clamp(
+            sleep[i] + actionTable[row * NEED_COUNT + Need.SLEEP.ordinal()], limitTable[limit],
+            limitTable[limit + 1]);
+        neglect(i, hu, row);
+      }
+      transitions.add(settle(i, speciesRules[species[i]]));
+      applied++;
+    }
+    return applied;
+  }
+
+  /**
+   * Keeps the death prediction of every pet up to date in the given index,
+   * under the index of the pet. Steps leave the predicted tick of death
+   * unchanged, so only actions and direct changes to pets update the index,
+   * and each tick just advances its clock.
+   *
+   * @param index the index to keep up to date, or null to stop
+   */
+  public void trackAtRisk(AtRiskIndex index) {
+    if (index != null) {
+      for (int i = 0; i < size; i++) {
+        index.update(i, ticksUntilDeath(i));
+      }
+    }
+    this.atRisk = index;
+  }
+
+  /**
+   * Returns the number of steps until a pet dies, assuming nobody interacts
+   * with it, like {@link Pet#ticksUntilDeath()}.
+   *
+   * @param index the index of the pet
+   * @return the number of steps, 0 if the pet is dead, or {@link Pet#NEVER}
+   */
+  public long ticksUntilDeath(int index) {
+    return new PetTimeline(profiles[species[index]], needsOf(index), MOODS[mood[index]],
+        STATES[state[index]], hungerLowStreak[index]).ticksUntilDead();
+  }
+
+  /**
+   * Keeps the given bitmap index up to date with every pet, refreshing it on
+   * every step, action and direct change to a pet.
+   *
+   * @param index the index to keep up to date, or null to stop
+   */
+  public void trackIndex(PopulationIndex index) {
+    if (index != null) {
+      if (index.capacity() != size) {
+        throw new IllegalArgumentException("Index of " + index.capacity()
+            + " pets for a population of " + size);
+      }
+      for (SpeciesProfile profile : profiles) {
+        for (Need need : Need.values()) {
+          NeedLimits limits = profile.getLimits(need);
+          if (limits.min() < need.limits().min() || limits.max() > need.limits().max()) {
+            throw new IllegalArgumentException("Limits of " + need + " of " + profile
+                + " outside the indexed range: " + limits);
+          }
+        }
+      }
+      index.refresh(needs, mood, state, 0, size, 0, size);
+    }
+    this.bitmaps = index;
+  }
+
+  // Updates the indexes after a change to a pet that was not a step
+  private void reindex(int index) {
+    if (atRisk != null) {
+      atRisk.update(index, ticksUntilDeath(index));
+    }
+    if (bitmaps != null) {
+      bitmaps.refresh(needs, mood, state, index, index + 1, size, 0);
+    }
+  }
+
+  /**
+   * Returns the species of a pet.
+   *
+   * @param index the index of the pet
+   * @return the species of the pet
+   */
+  public SpeciesProfile getSpecies(int index) {
+    return profiles[species[index]];
+  }
+
+  /**
+   * Returns the species pets of this population may belong to, in the order
+   * they were given to the constructor.
+   *
+   * @return the species of the population
+   */
+  public List<SpeciesProfile> getSpeciesProfiles() {
+    return List.of(profiles);
+  }
+
+  // Returns the position of a pet's species in getSpeciesProfiles()
+  int getSpeciesIndex(int index) {
+    return species[index];
+  }
+
+  /**
+   * Moves a pet to another species of the population, keeping its needs,
+   * mood and state. From then on the pet follows the rules of its new species.
+   *
+   * @param index   the index of the pet
+   * @param profile one of the species this population was constructed with
+   * @throws IllegalArgumentException if the species is not one of the population
+   */
+  public void setSpecies(int index, SpeciesProfile profile) {
+    for (int s = 0; s < profiles.length; s++) {
+      if (profiles[s] == profile) {
+        species[index] = (byte) s;
+        reindex(index);
+        return;
+      }
+    }
+    throw new IllegalArgumentException("Not a species of this population: " + profile);
+  }
+
+  /**
+   * Copies the full state of the given pet into this population.
+   * The pet keeps the species it has in this population.
+   *
+   * @param index the index of the pet in the population
+   * @param pet   the pet to copy from
+   */
+  public void copyFrom(int index, Pet pet) {
+    for (Need need : Need.values()) {
+      needs[need.ordinal()][index] = pet.getNeed(need);
+    }
+    mood[index] = (byte) pet.getMood().ordinal();
+    state[index] = (byte) pet.getState().ordinal();
+    hungerLowStreak[index] = pet.getHungerLowStreak();
+    justWokeUp[index] = pet.isJustWokeUp();
+    reindex(index);
+  }
+
+  /**
+   * Restores the full state of a pet, for example from a snapshot. The
+   * species is a position in {@link #getSpeciesProfiles()}, and the needs are
+   * given in the order of {@link Need}.
+   */
+  void restore(int index, int species, int[] needs, MoodEnum mood, PetState state,
+               int hungerLowStreak, boolean justWokeUp) {
+    this.species[index] = (byte) species;
+    for (int n = 0; n < NEED_COUNT; n++) {
+      this.needs[n][index] = needs[n];
+    }
+    this.mood[index] = (byte) mood.ordinal();
+    this.state[index] = (byte) state.ordinal();
+    this.hungerLowStreak[index] = hungerLowStreak;
+    this.justWokeUp[index] = justWokeUp;
+    reindex(index);
+  }
+
+  /**
+   * Returns a snapshot of the health status of a pet.
+   *
+   * @param index the index of the pet
+   * @return a new health status holding the pet's current needs
+   */
+  public HealthStatus getHealth(int index) {
+    return new HealthStatus(needsOf(index));
+  }
+
+  // Returns the value of every need of a pet, in the order of Need
+  private int[] needsOf(int index) {
+    int[] values = new int[NEED_COUNT];
+    for (int n = 0; n < NEED_COUNT; n++) {
+      values[n] = needs[n][index];
+    }
+    return values;
+  }
+
+  /**
+   * Sets the needs of a pet.
+   *
+   * @param index  the index of the pet
+   * @param health the new health status
+   */
+  public void setHealth(int index, HealthStatus health) {
+    for (Need need : Need.values()) {
+      needs[need.ordinal()][index] = health.get(need);
+    }
+    reindex(index);
+  }
+
+  /**
+   * Returns the value of a need of a pet.
+   *
+   * @param index the index of the pet
+   * @param need  the need
+   * @return the value of the need
+   */
+  public int getNeed(int index, Need need) {
+    return needs[need.ordinal()][index];
+  }
+
+  public int getHunger(int index) {
+    return getNeed(index, Need.HUNGER);
+  }
+
+  public int getHygiene(int index) {
+    return getNeed(index, Need.HYGIENE);
+  }
+
+  public int getSocial(int index) {
+    return getNeed(index, Need.SOCIAL);
+  }
+
+  public int getSleep(int index) {
+    return getNeed(index, Need.SLEEP);
+  }
+
+  public MoodEnum getMood(int index) {
+    return MOODS[mood[index]];
+  }
+
+  public void setMood(int index, MoodEnum mood) {
+    this.mood[index] = (byte) mood.ordinal();
+    reindex(index);
+  }
+
+  public PetState getState(int index) {
+    return STATES[state[index]];
+  }
+
+  public void setState(int index, PetState state) {
+    this.state[index] = (byte) state.ordinal();
+    reindex(index);
+  }
+
+  public int getHungerLowStreak(int index) {
+    return hungerLowStreak[index];
+  }
+
+  public boolean isJustWokeUp(int index) {
+    return justWokeUp[index];
+  }
+
+  public boolean isDead(int index) {
+    return state[index] == DEAD;
+  }
+
+  public boolean isSleeping(int index) {
+    return state[index] == SLEEPING;
+  }
+
+  /**
+   * Checks if a pet is hungry and needs to be fed.
+   *
+   * @param index the index of the pet
+   * @return true if the pet is hungry, false otherwise
+   */
+  public boolean isHungryWarning(int index) {
+    return hungerLowStreak[index] >= speciesRules[species[index]].streakLimit();
+  }
+}
@@ -0,0 +1,152 @@
+package pet;
+
+/**
+ * A condition on the needs, mood and state of pets, evaluated over the
+ * bitmaps of a {@link PopulationIndex} without reading any pet.
+ *
+ * <p>Queries are built from the factory methods and combined with
+ * {@link #and(PetQuery)}, {@link #or(PetQuery)} and {@link #not()}, for
+ * example {@code PetQuery.atLeast(Need.HUNGER, 50).and(PetQuery.atMost(Need.SLEEP, 50))}.
+ */
+public abstract class PetQuery {
+  PetQuery() {
+  }
+
+  /**
+   * Matches the pets whose need is at least the given value.
+   *
+   * @param need      the need to check
+   * @param threshold the lowest matching value
+   * @return the query
+   */
+  public static PetQuery atLeast(Need need, int threshold) {
+    return new Leaf(index -> index.atLeastWords(need, threshold));
+  }
+
+  /**
+   * Matches the pets whose need is at most the given value.
+   *
+   * @param need      the need to check
+   * @param threshold the highest matching value
+   * @return the query
+   */
+  public static PetQuery atMost(Need need, int threshold) {
+    if (threshold == Integer.MAX_VALUE) {
+      return all();
+    }
+    return atLeast(need, threshold + 1).not();
+  }
+
+  public static PetQuery mood(MoodEnum mood) {
+    return new Leaf(index -> index.moodWords(mood));
+  }
+
+  public static PetQuery state(PetState state) {
+    return new Leaf(index -> index.stateWords(state));
+  }
+
+  public static PetQuery all() {
+    return new Leaf(PopulationIndex::allWords);
+  }
+
+  /**
+   * Matches the pets matching both this query and the other one.
+   *
+   * @param other the other query
+   * @return the combined query
+   */
+  public PetQuery and(PetQuery other) {
+    return new Combined(this, other, Combined.AND);
+  }
+
+  /**
+   * Matches the pets matching this query, the other one or both.
+   *
+   * @param other the other query
+   * @return the combined query
+   */
+  public PetQuery or(PetQuery other) {
+    return new Combined(this, other, Combined.OR);
+  }
+
+  /**
+   * Matches the pets not matching this query.
+   *
+   * @return the negated query
+   */
+  public PetQuery not() {
+    return new Not(this);
+  }
+
+  /**
+   * Evaluates the query into a new bitmap of the pets of the index, one bit
+   * per pet, which the caller may modify.
+   */
+  abstract long[] evaluate(PopulationIndex index);
+
+  // Reads one bitmap of the index
+  private interface Source {
+    long[] words(PopulationIndex index);
+  }
+
+  private static final class Leaf extends PetQuery {
+    private final Source source;
+
+    Leaf(Source source) {
+      this.source = source;
+    }
+
+    @Override
+    long[] evaluate(PopulationIndex index) {
+      return source.words(index);
+    }
+  }
+
+  private static final class Not extends PetQuery {
+    private final PetQuery query;
+
+    Not(PetQuery query) {
+      this.query = query;
+    }
+
+    @Override
+    long[] evaluate(PopulationIndex index) {
+      long[] words = query.evaluate(index);
+      long[] all = index.allWords();
+      for (int w = 0; w < words.length; w++) {
+        words[w] = ~words[w] & all[w];
+      }
+      return words;
+    }
+  }
+
+  private static final class Combined extends PetQuery {
+    static final int AND = 0;
+    static final int OR = 1;
+    private final PetQuery left;
+    private final PetQuery right;
+    private final int operator;
+
+    Combined(PetQuery left, PetQuery right, int operator) {
+      this.left = left;
+      this.right = right;
+      this.operator = operator;
+    }
+
+    @Override
+    long[] evaluate(PopulationIndex index) {
+      long[] words = left.evaluate(index);
+      long[] other = right.evaluate(index);
+      if (operator == AND) {
+        for (int w = 0; w < words.length; w++) {
+          words[w] &= other[w];
+        }
+      } else {
+        for (int w = 0; w < words.length; w++) {
+          words[w] |= other[w];
+        }
+      }
+      return words;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package pet;
+
+/**
+ * An immutable copy of everything observable about a pet at one moment.
+ * Snapshots can be handed to other threads without any locking.
+ *
+ * @param health        the value of every need
+ * @param mood          the mood
+ * @param state         the state
+ * @param hungryWarning whether the pet has been hungry for too long
+ * @param justWokeUp    whether the pet just woke up
+ */
+public record PetSnapshot(HealthStatus health, MoodEnum mood, PetState state, boolean hungryWarning,
+                          boolean justWokeUp) {
+
+  /**
+   * Copies the current state of a pet.
+   *
+   * @param pet the pet to copy
+   * @return the snapshot of the pet
+   */
+  public static PetSnapshot of(Pet pet) {
+    return new PetSnapshot(new HealthStatus(pet.getNeeds()), pet.getMood(), pet.getState(),
+        pet.isHungryWarning(), pet.isJustWokeUp());
+  }
+
+  /**
+   * Returns the value of a need at the moment of the snapshot.
+   *
+   * @param need the need
+   * @return the value of the need
+   */
+  public int getNeed(Need need) {
+    return health.get(need);
+  }
+
+  public boolean isDead() {
+    return state == PetState.Dead;
+  }
+
+  public boolean isSleeping() {
+    return state == PetState.Sleeping;
+  }
+
+  public HealthStatus getHealth() {
+    return health;
+  }
+}
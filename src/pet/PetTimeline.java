@@ -0,0 +1,310 @@
+package pet;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Follows the state of a pet through time, assuming nobody interacts with it.
+ * As long as the mood, the state and the outcome of every threshold check of
+ * the moods of its species and of {@link Pet#updateDeath()} stay the same,
+ * the needs change by the same deltas on every step, so a whole run of steps
+ * is applied at once. The single steps that cross a threshold are applied with
+ * the same rules as {@link Pet#step()}, so the result is exact.
+ *
+ * <p>Some species move between moods forever, for example when a need rises
+ * in one mood and falls in the other. A prediction that has walked many runs
+ * remembers the state at the start of each further run, and once a state
+ * comes back the timeline repeats itself, so what has not happened never will.
+ */
+final class PetTimeline {
+  // Returned by the predictions when something never happens
+  static final long NEVER = Long.MAX_VALUE;
+  private static final int NEED_COUNT = SpeciesProfile.NEED_COUNT;
+  private static final boolean[] RISING = SpeciesProfile.RISING;
+  private static final int SAD = MoodEnum.SAD.ordinal();
+  private static final int HUNGER = Need.HUNGER.ordinal();
+  // Runs a prediction walks before it starts looking for a cycle
+  private static final int CYCLE_CHECK_AFTER = 64;
+
+  private final SpeciesProfile species;
+  // The compiled tables of the pet's species
+  private final int[] stepDeltas;
+  private final int[] limits;
+  private final int[] rules;
+  private final int[] needs = new int[NEED_COUNT];
+  // Deltas of the current run, with needs pinned at a limit set to zero
+  private final int[] runDeltas = new int[NEED_COUNT];
+  // The needs after the next step of the current run
+  private final int[] stepped = new int[NEED_COUNT];
+  private boolean runNeglected;
+  private int mood;
+  private PetState state;
+  private int streak;
+  // The runs walked by the current prediction, and the states seen at the start of the
+  // runs past CYCLE_CHECK_AFTER
+  private int runs;
+  private Set<Moment> seen;
+
+  // The state of a timeline at the start of a run
+  private record Moment(int[] values) {
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Moment moment && Arrays.equals(values, moment.values);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(values);
+    }
+  }
+
+  /**
+   * Starts a timeline at the current state of the given pet.
+   *
+   * @param pet the pet to follow
+   */
+  PetTimeline(Pet pet) {
+    this(SpeciesProfile.DEFAULT, pet.getNeeds(), pet.getMood(),
+        pet.getState(), pet.getHungerLowStreak());
+  }
+
+  /**
+   * Starts a timeline at the given state of a pet of the given species.
+   * The needs are given in the order of {@link Need}, and copied.
+   */
+  PetTimeline(SpeciesProfile species, int[] needs, MoodEnum mood, PetState state, int streak) {
+    this.species = species;
+    this.stepDeltas = species.stepDeltas;
+    this.limits = species.limits;
+    this.rules = species.rules;
+    System.arraycopy(needs, 0, this.needs, 0, NEED_COUNT);
+    this.mood = mood.ordinal();
+    this.state = state;
+    this.streak = streak;
+  }
+
+  int getNeed(int need) {
+    return needs[need];
+  }
+
+  MoodEnum getMood() {
+    return SpeciesProfile.MOODS[mood];
+  }
+
+  PetState getState() {
+    return state;
+  }
+
+  int getStreak() {
+    return streak;
+  }
+
+  /**
+   * Applies the given number of steps, jumping over every run of steps that
+   * does not cross a threshold.
+   *
+   * @param ticks the number of steps to apply
+   */
+  void advance(long ticks) {
+    while (ticks > 0 && state != PetState.Dead) {
+      long run = linearRun();
+      if (run == 0) {
+        step();
+        ticks--;
+      } else {
+        long steps = Math.min(run, ticks);
+        jump(steps);
+        ticks -= steps;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of steps until the pet dies.
+   *
+   * @return the number of steps, 0 if already dead, or {@link #NEVER}
+   */
+  long ticksUntilDead() {
+    long elapsed = 0;
+    startPrediction();
+    while (state != PetState.Dead) {
+      long run = linearRun();
+      if (run == NEVER || cycled()) {
+        return NEVER;
+      }
+      if (run == 0) {
+        step();
+        elapsed++;
+      } else {
+        jump(run);
+        elapsed += run;
+      }
+    }
+    return elapsed;
+  }
+
+  /**
+   * Returns the number of steps until the pet's mood is updated to sad.
+   *
+   * @return the number of steps, 0 if already sad, or {@link #NEVER} if the
+   *     pet dies first or stays happy forever
+   */
+  long ticksUntilSad() {
+    long elapsed = 0;
+    startPrediction();
+    while (mood != SAD) {
+      if (state == PetState.Dead) {
+        return NEVER;
+      }
+      long run = linearRun();
+      if (run == NEVER || cycled()) {
+        return NEVER;
+      }
+      if (run == 0) {
+        step();
+        elapsed++;
+      } else {
+        jump(run);
+        elapsed += run;
+      }
+    }
+    return elapsed;
+  }
+
+  private void startPrediction() {
+    runs = 0;
+    seen = null;
+  }
+
+  // Checks if the timeline is back at the state it had at the start of an earlier run of the
+  // current prediction, from which it repeats the same runs forever
+  private boolean cycled() {
+    if (++runs <= CYCLE_CHECK_AFTER) {
+      return false;
+    }
+    if (seen == null) {
+      seen = new HashSet<>();
+    }
+    int[] values = Arrays.copyOf(needs, NEED_COUNT + 3);
+    values[NEED_COUNT] = mood;
+    values[NEED_COUNT + 1] = state.ordinal();
+    // past its limit, a longer streak changes nothing
+    values[NEED_COUNT + 2] = Math.min(streak, rules[SpeciesProfile.STREAK_LIMIT]);
+    return !seen.add(new Moment(values));
+  }
+
+  /**
+   * Applies a single step, following {@link Pet#step()}.
+   */
+  void step() {
+    if (state == PetState.Dead) {
+      return;
+    }
+    int regime = regime();
+    for (int n = 0; n < NEED_COUNT; n++) {
+      needs[n] = PetUtils.clamp(needs[n] + stepDeltas[regime + n], limits[2 * n],
+          limits[2 * n + 1]);
+    }
+    int hunger = needs[HUNGER];
+    streak = hunger >= rules[SpeciesProfile.STREAK_THRESHOLD] ? streak + 1 : 0;
+    mood = species.transition(mood, species.bucket(mood, needs, streak));
+    boolean deadNow = false;
+    for (int n = 0; n < NEED_COUNT; n++) {
+      deadNow |= needs[n] == rules[SpeciesProfile.DEAD + n];
+    }
+    if (deadNow) {
+      state = PetState.Dead;
+    }
+  }
+
+  // Returns where the deltas of the current mood and state start in stepDeltas
+  private int regime() {
+    return (mood * SpeciesProfile.STATE_COUNT + state.ordinal()) * NEED_COUNT;
+  }
+
+  /**
+   * Returns how many of the next steps only add the run deltas to the needs:
+   * no clamping, no death, and the same mood and threshold checks after each.
+   * Returns 0 when the very next step crosses a threshold or changes the mood.
+   */
+  private long linearRun() {
+    int regime = regime();
+    long run = NEVER;
+    for (int n = 0; n < NEED_COUNT; n++) {
+      int min = limits[2 * n];
+      int max = limits[2 * n + 1];
+      int value = needs[n];
+      int delta = stepDeltas[regime + n];
+      if (value < min || value > max) {
+        return 0;
+      }
+      // a need already pinned at a limit stays there
+      if ((value == max && delta > 0) || (value == min && delta < 0)) {
+        delta = 0;
+      }
+      if (value + delta > max || value + delta < min) {
+        return 0;
+      }
+      run = Math.min(run, runLength(value, delta, min));
+      run = Math.min(run, runLength(-value, -delta, -max));
+      // measure every need in the direction in which it gets worse
+      int sign = RISING[n] ? 1 : -1;
+      long worse = (long) sign * value;
+      long worseDelta = (long) sign * delta;
+      long deathAt = (long) sign * rules[SpeciesProfile.DEAD + n];
+      if (worse + worseDelta >= deathAt) {
+        return 0;
+      }
+      run = Math.min(run, runLength(worse, worseDelta, deathAt));
+      runDeltas[n] = delta;
+    }
+    int hunger = needs[HUNGER];
+    int hungerDelta = runDeltas[HUNGER];
+    int neglectedFrom = rules[SpeciesProfile.STREAK_THRESHOLD];
+    runNeglected = hunger + hungerDelta >= neglectedFrom;
+    run = Math.min(run, runLength(hunger, hungerDelta, neglectedFrom));
+    // the streak grows by one on every step of a neglected run, and stays at zero otherwise
+    int streakValue = runNeglected ? streak : 0;
+    int streakDelta = runNeglected ? 1 : 0;
+    // every threshold check keeps the outcome it has after the next step
+    for (int p = 0; p < species.predicateNeeds.length; p++) {
+      int n = species.predicateNeeds[p];
+      long sign = species.predicateSigns[p];
+      long value = sign * (n == SpeciesProfile.STREAK ? streakValue : needs[n]);
+      long delta = sign * (n == SpeciesProfile.STREAK ? streakDelta : runDeltas[n]);
+      run = Math.min(run, runLength(value, delta, species.predicateBounds[p]));
+    }
+    // so the bucket after the next step is kept by every step of the run
+    for (int n = 0; n < NEED_COUNT; n++) {
+      stepped[n] = needs[n] + runDeltas[n];
+    }
+    int bucket = species.bucket(mood, stepped, streakValue + streakDelta);
+    return species.transition(mood, bucket) == mood ? run : 0;
+  }
+
+  // Applies the given number of steps of the run found by linearRun()
+  private void jump(long steps) {
+    for (int n = 0; n < NEED_COUNT; n++) {
+      needs[n] += (int) (steps * runDeltas[n]);
+    }
+    streak = runNeglected ? (int) Math.min(streak + steps, Integer.MAX_VALUE) : 0;
+  }
+
+  /**
+   * Returns for how many consecutive steps {@code j = 1, 2, ...} the check
+   * {@code value + j * delta >= threshold} keeps the outcome it has at {@code j = 1}.
+   */
+  static long runLength(long value, long delta, long threshold) {
+    boolean first = value + delta >= threshold;
+    if (delta == 0 || first == (delta > 0)) {
+      return NEVER;
+    }
+    if (delta > 0) {
+      // false until j reaches ceil((threshold - value) / delta)
+      return (threshold - value + delta - 1) / delta - 1;
+    }
+    // true while j <= (value - threshold) / -delta
+    return (value - threshold) / -delta;
+  }
+}
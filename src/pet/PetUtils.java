@@ -4,11 +4,18 @@ package pet;
  * Utility functions for pets.
  */
 public class PetUtils {
+  private static final Need[] NEEDS = Need.values();
+
   // Clamp a value between 0 and 100
   public static int clamp(int value, NeedLimits limits) {
     return Math.max(limits.min(), Math.min(value, limits.max()));
   }
 
+  // Clamp a value between the given limits, as read from compiled species tables
+  static int clamp(int value, int min, int max) {
+    return Math.max(min, Math.min(value, max));
+  }
+
   /**
    * Apply a decay profile to a health status.
    *
@@ -17,12 +24,24 @@ public class PetUtils {
    * @return the new health status after applying the decay profile
    */
   public static HealthStatus applyDecay(HealthStatus current, MoodDecayProfile profile) {
-    return new HealthStatus(
-        clamp(current.getHunger() + profile.hunger(), NeedConfig.HUNGER),
-        clamp(current.getHygiene() + profile.hygiene(), NeedConfig.HYGIENE),
-        clamp(current.getSocial() + profile.social(), NeedConfig.SOCIAL),
-        clamp(current.getSleep() + profile.sleep(), NeedConfig.SLEEP)
-    );
+    int[] values = new int[Need.COUNT];
+    for (Need need : NEEDS) {
+      values[need.ordinal()] = clamp(current.get(need) + profile.get(need), need.limits());
+    }
+    return new HealthStatus(values);
+  }
+
+  /**
+   * Apply a decay profile to the needs of a pet in place, without allocating.
+   *
+   * @param needs   the value of each need, in the order of {@link Need}
+   * @param profile the decay profile to apply
+   */
+  static void applyDecay(int[] needs, MoodDecayProfile profile) {
+    for (Need need : NEEDS) {
+      int n = need.ordinal();
+      needs[n] = clamp(needs[n] + profile.get(n), need.limits());
+    }
   }
 
 }
@@ -0,0 +1,239 @@
+package pet;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Bitmap indexes over the needs, moods and states of a {@link PetPopulation},
+ * answering {@link PetQuery} conditions without reading any pet.
+ *
+ * <p>Needs are bit-sliced: for every bit of a need's distance from its
+ * minimum there is a bitmap of the pets with that bit set, so the 101 values
+ * of a need take 7 bitmaps, and {@code need >= t} is computed for any t with
+ * a few word operations per bitmap. Moods and states have one bitmap per value.
+ *
+ * <p>Most steps change every need of every living pet, so the need bitmaps
+ * of a range of pets are rebuilt from its columns, 64 pets at a time without
+ * branching, rather than patched pet by pet. Bitmaps are plain words with one
+ * bit per pet, and the words at the edges of a range are updated atomically,
+ * so disjoint ranges of pets may be refreshed from different threads, but
+ * queries must not run while pets are being refreshed.
+ */
+public class PopulationIndex {
+  private static final Need[] NEEDS = Need.values();
+  private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final byte NONE = -1;
+  // Gathers bit 0 of each byte of a long into the top byte, see sliceOf()
+  private static final long LOW_BITS = 0x0101010101010101L;
+  private static final long GATHER = 0x0102040810204080L;
+
+  private final int capacity;
+  private final long[] all;
+  // The number of bit slices of each need
+  private final int[] sliceCounts = new int[NEEDS.length];
+  // The slices of each need, interleaved so that the slices of 64 pets are next to
+  // each other: bit i of slices[need][(i / 64) * sliceCount + b] is bit b of pet i's need
+  private final long[][] slices = new long[NEEDS.length][];
+  private final long[][] moodBits = new long[PetPopulation.MOODS.length][];
+  private final long[][] stateBits = new long[PetPopulation.STATES.length][];
+  // The mood and the state of each pet, as last refreshed
+  private final byte[] petMoods;
+  private final byte[] petStates;
+
+  /**
+   * Constructs an empty index for pets with indices from 0 to capacity - 1.
+   *
+   * @param capacity the number of pets
+   */
+  public PopulationIndex(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    this.capacity = capacity;
+    int wordCount = (capacity + Long.SIZE - 1) / Long.SIZE;
+    this.all = new long[wordCount];
+    for (int i = 0; i < capacity; i += Long.SIZE) {
+      all[i / Long.SIZE] = capacity - i >= Long.SIZE ? -1L : (1L << (capacity - i)) - 1;
+    }
+    for (Need need : NEEDS) {
+      int range = need.limits().max() - need.limits().min();
+      int count = Integer.SIZE - Integer.numberOfLeadingZeros(range);
+      if (count > Byte.SIZE) {
+        throw new IllegalArgumentException("Range of " + need + " too large to index: " + range);
+      }
+      sliceCounts[need.ordinal()] = count;
+      slices[need.ordinal()] = new long[wordCount * count];
+    }
+    for (int m = 0; m < moodBits.length; m++) {
+      moodBits[m] = new long[wordCount];
+    }
+    for (int s = 0; s < stateBits.length; s++) {
+      stateBits[s] = new long[wordCount];
+    }
+    this.petMoods = new byte[capacity];
+    this.petStates = new byte[capacity];
+    Arrays.fill(petMoods, NONE);
+    Arrays.fill(petStates, NONE);
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Brings the bitmaps of the pets with indices in {@code [from, to)} up to
+   * date with the given columns of a population. The words holding pets
+   * below sharedBelow or from sharedFrom on may also hold pets refreshed by
+   * other threads, so they are updated atomically.
+   */
+  void refresh(int[][] needs, byte[] mood, byte[] state, int from, int to, int sharedBelow,
+               int sharedFrom) {
+    if (from < 0 || to > capacity || from > to) {
+      throw new IndexOutOfBoundsException("Invalid range: [" + from + ", " + to + ")");
+    }
+    for (int n = 0; n < NEEDS.length; n++) {
+      refreshNeed(n, needs[n], from, to, sharedBelow, sharedFrom);
+    }
+    refreshValue(moodBits, petMoods, mood, from, to, sharedBelow, sharedFrom);
+    refreshValue(stateBits, petStates, state, from, to, sharedBelow, sharedFrom);
+  }
+
+  // Rebuilds the slices of a need for the pets in [from, to), one word of 64 pets at a time
+  private void refreshNeed(int n, int[] values, int from, int to, int sharedBelow,
+                           int sharedFrom) {
+    int min = NEEDS[n].limits().min();
+    int top = NEEDS[n].limits().max() - min;
+    int count = sliceCounts[n];
+    long[] needSlices = slices[n];
+    // the values of 8 pets at a time, one byte each
+    long[] packed = new long[Long.SIZE / Byte.SIZE];
+    for (int start = from, end; start < to; start = end) {
+      int word = start >>> 6;
+      int first = word << 6;
+      end = Math.min(to, first + Long.SIZE);
+      Arrays.fill(packed, 0);
+      for (int i = start; i < end; i++) {
+        long value = Math.min(Math.max(values[i] - min, 0), top);
+        packed[(i - first) >>> 3] |= value << ((i & 7) << 3);
+      }
+      long mask = end - start == Long.SIZE ? -1L : ((1L << (end - start)) - 1) << start;
+      boolean shared = start < sharedBelow || end > sharedFrom || mask != -1L;
+      int base = word * count;
+      for (int b = 0; b < count; b++) {
+        long slice = 0;
+        for (int group = 0; group < packed.length; group++) {
+          slice |= sliceOf(packed[group], b) << (group << 3);
+        }
+        if (shared) {
+          long changed = (needSlices[base + b] ^ slice) & mask;
+          if (changed != 0) {
+            WORDS.getAndBitwiseXor(needSlices, base + b, changed);
+          }
+        } else {
+          needSlices[base + b] = slice;
+        }
+      }
+    }
+  }
+
+  // Returns bit b of each of the 8 bytes of a long, as the 8 low bits
+  private static long sliceOf(long bytes, int b) {
+    return ((bytes >>> b) & LOW_BITS) * GATHER >>> 56;
+  }
+
+  // Moves every changed pet from the bitmap of its previous value to the one of its new value
+  private static void refreshValue(long[][] valueBits, byte[] pets, byte[] values, int from,
+                                   int to, int sharedBelow, int sharedFrom) {
+    for (int i = from; i < to; i++) {
+      byte value = values[i];
+      byte previous = pets[i];
+      if (value != previous) {
+        pets[i] = value;
+        boolean shared = i < sharedBelow || i >= sharedFrom;
+        if (previous != NONE) {
+          flip(valueBits[previous], i, shared);
+        }
+        flip(valueBits[value], i, shared);
+      }
+    }
+  }
+
+  private static void flip(long[] words, int i, boolean shared) {
+    if (shared) {
+      WORDS.getAndBitwiseXor(words, i >>> 6, 1L << i);
+    } else {
+      words[i >>> 6] ^= 1L << i;
+    }
+  }
+
+  /**
+   * Returns the pets matching a query.
+   *
+   * @param query the query
+   * @return a new set holding the index of every matching pet
+   */
+  public BitSet evaluate(PetQuery query) {
+    return BitSet.valueOf(query.evaluate(this));
+  }
+
+  /**
+   * Counts the pets matching a query.
+   *
+   * @param query the query
+   * @return the number of matching pets
+   */
+  public int count(PetQuery query) {
+    int count = 0;
+    for (long word : query.evaluate(this)) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  // The methods below return a new bitmap that the caller may modify
+
+  long[] atLeastWords(Need need, int threshold) {
+    NeedLimits limits = need.limits();
+    if (threshold <= limits.min()) {
+      return all.clone();
+    }
+    long[] words = new long[all.length];
+    if (threshold > limits.max()) {
+      return words;
+    }
+    int n = need.ordinal();
+    int count = sliceCounts[n];
+    long[] needSlices = slices[n];
+    int bound = threshold - limits.min();
+    for (int w = 0; w < words.length; w++) {
+      // compares the bits of every value with those of the bound, from the highest
+      long greater = 0;
+      long equal = all[w];
+      for (int b = count - 1; b >= 0; b--) {
+        long slice = needSlices[w * count + b];
+        if ((bound >>> b & 1) != 0) {
+          equal &= slice;
+        } else {
+          greater |= equal & slice;
+          equal &= ~slice;
+        }
+      }
+      words[w] = greater | equal;
+    }
+    return words;
+  }
+
+  long[] moodWords(MoodEnum mood) {
+    return moodBits[mood.ordinal()].clone();
+  }
+
+  long[] stateWords(PetState state) {
+    return stateBits[state.ordinal()].clone();
+  }
+
+  long[] allWords() {
+    return all.clone();
+  }
+}
@@ -0,0 +1,440 @@
+package pet;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A memory-mapped, read-only snapshot of a pet population.
+ *
+ * <p>The file starts with a header: a magic number, the format version, the
+ * number of columns, the number of pets, the offset of each column and the
+ * offset of the species names, 80 bytes in all with the four needs. The
+ * columns follow, each aligned to 8 bytes: every {@link Need} in order as
+ * 16-bit values, the hunger streak as a 32-bit value, a status byte holding
+ * the mood ordinal (bits 0-3), the state ordinal (bits 4-5) and the
+ * just-woke-up flag (bit 6), and a species byte. The species names come last:
+ * their number as a 32-bit value, then each name as a 16-bit length and its
+ * UTF-8 bytes. The species byte of a pet is the position of its species in
+ * the names. All values are little-endian.
+ *
+ * <p>Only the names of the species are saved, not their rules, so a snapshot
+ * is loaded into a population of species with the same names.
+ *
+ * <p>Opening a snapshot only maps the columns, so the operating system pages
+ * pets in when they are first read.
+ */
+public class PopulationSnapshot implements AutoCloseable {
+  static final int VERSION = 2;
+  private static final int MAGIC = 0x50455453;
+  // The columns of the needs come first, one per need
+  private static final int STREAK = Need.COUNT;
+  private static final int STATUS = STREAK + 1;
+  private static final int SPECIES = STATUS + 1;
+  private static final int COLUMNS = SPECIES + 1;
+  // The names follow the columns, and their offset follows the offsets of the columns
+  private static final int NAMES = COLUMNS;
+  private static final int HEADER_BYTES = 16 + Long.BYTES * (COLUMNS + 1);
+  private static final int[] COLUMN_BYTES = columnBytes();
+  private static final int STATE_SHIFT = 4;
+  private static final int MOOD_MASK = 0x0F;
+  private static final int STATE_MASK = 0x03;
+  private static final int WOKE_UP_BIT = 0x40;
+
+  private final FileChannel channel;
+  private final int size;
+  private final ShortBuffer[] needs = new ShortBuffer[Need.COUNT];
+  private final IntBuffer streak;
+  private final ByteBuffer status;
+  private final ByteBuffer species;
+  private final String[] speciesNames;
+
+  private PopulationSnapshot(FileChannel channel, int size, long[] offsets,
+                             String[] speciesNames) throws IOException {
+    this.channel = channel;
+    this.size = size;
+    this.speciesNames = speciesNames;
+    for (int n = 0; n < needs.length; n++) {
+      needs[n] = map(channel, offsets, n, size).asShortBuffer();
+    }
+    this.streak = map(channel, offsets, STREAK, size).asIntBuffer();
+    this.status = map(channel, offsets, STATUS, size);
+    this.species = map(channel, offsets, SPECIES, size);
+  }
+
+  /**
+   * Writes a snapshot of the given population.
+   *
+   * @param path       the file to write, replaced if it exists
+   * @param population the population to save
+   * @throws IOException if the file cannot be written
+   * @throws IllegalArgumentException if two species of the population have the same name
+   */
+  public static void write(Path path, PetPopulation population) throws IOException {
+    int size = population.size();
+    long[] offsets = layout(size);
+    ByteBuffer names = encodeNames(population.getSpeciesProfiles());
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putShort((short) VERSION).putShort((short) COLUMNS).putLong(size);
+      for (long offset : offsets) {
+        header.putLong(offset);
+      }
+      header.flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      for (Need need : Need.values()) {
+        ShortBuffer column = mapForWrite(channel, offsets, need.ordinal(), size).asShortBuffer();
+        for (int i = 0; i < size; i++) {
+          column.put(i, toShort(population.getNeed(i, need)));
+        }
+      }
+      IntBuffer streak = mapForWrite(channel, offsets, STREAK, size).asIntBuffer();
+      ByteBuffer status = mapForWrite(channel, offsets, STATUS, size);
+      ByteBuffer species = mapForWrite(channel, offsets, SPECIES, size);
+      for (int i = 0; i < size; i++) {
+        streak.put(i, population.getHungerLowStreak(i));
+        status.put(i, status(population.getMood(i), population.getState(i),
+            population.isJustWokeUp(i)));
+        species.put(i, (byte) population.getSpeciesIndex(i));
+      }
+      while (names.hasRemaining()) {
+        channel.write(names, offsets[NAMES] + names.position());
+      }
+      channel.force(true);
+    }
+  }
+
+  /**
+   * Opens a snapshot by mapping its columns, without reading any pet.
+   *
+   * @param path the snapshot file
+   * @return the open snapshot
+   * @throws IOException if the file cannot be mapped or is not a snapshot
+   */
+  public static PopulationSnapshot open(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0) {
+          throw new IOException("Truncated snapshot header");
+        }
+      }
+      header.flip();
+      if (header.getInt() != MAGIC) {
+        throw new IOException("Not a pet snapshot");
+      }
+      int version = header.getShort();
+      if (version != VERSION) {
+        throw new IOException("Unsupported snapshot version: " + version);
+      }
+      if (header.getShort() != COLUMNS) {
+        throw new IOException("Unexpected number of snapshot columns");
+      }
+      long size = header.getLong();
+      if (size < 0 || size > Integer.MAX_VALUE) {
+        throw new IOException("Invalid snapshot size: " + size);
+      }
+      long[] offsets = new long[COLUMNS + 1];
+      for (int column = 0; column < COLUMNS; column++) {
+        offsets[column] = header.getLong();
+        if (offsets[column] + size * COLUMN_BYTES[column] > channel.size()) {
+          throw new IOException("Truncated snapshot column " + column);
+        }
+      }
+      offsets[NAMES] = header.getLong();
+      String[] names = readNames(channel, offsets[NAMES]);
+      return new PopulationSnapshot(channel, (int) size, offsets, names);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  // Places each column after the header and the previous column, aligned to 8 bytes,
+  // and the names after the last column
+  private static long[] layout(int size) {
+    long[] offsets = new long[COLUMNS + 1];
+    long offset = HEADER_BYTES;
+    for (int column = 0; column < COLUMNS; column++) {
+      offsets[column] = offset;
+      offset += ((long) size * COLUMN_BYTES[column] + 7) & ~7L;
+    }
+    offsets[NAMES] = offset;
+    return offsets;
+  }
+
+  private static ByteBuffer encodeNames(List<SpeciesProfile> profiles) {
+    List<byte[]> encoded = new ArrayList<>();
+    int bytes = Integer.BYTES;
+    for (SpeciesProfile profile : profiles) {
+      for (SpeciesProfile other : profiles.subList(0, encoded.size())) {
+        if (other.getName().equals(profile.getName())) {
+          throw new IllegalArgumentException("Species saved under the same name: "
+              + profile.getName());
+        }
+      }
+      byte[] name = profile.getName().getBytes(StandardCharsets.UTF_8);
+      if (name.length > Short.MAX_VALUE) {
+        throw new IllegalArgumentException("Species name too long: " + profile.getName());
+      }
+      encoded.add(name);
+      bytes += Short.BYTES + name.length;
+    }
+    ByteBuffer names = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    names.putInt(encoded.size());
+    for (byte[] name : encoded) {
+      names.putShort((short) name.length).put(name);
+    }
+    return names.flip();
+  }
+
+  private static String[] readNames(FileChannel channel, long offset) throws IOException {
+    long bytes = channel.size() - offset;
+    if (offset < HEADER_BYTES || bytes < Integer.BYTES || bytes > Integer.MAX_VALUE) {
+      throw new IOException("Truncated snapshot species names");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new IOException("Truncated snapshot species names");
+      }
+    }
+    buffer.flip();
+    try {
+      int count = buffer.getInt();
+      if (count < 1 || count > Byte.MAX_VALUE + 1) {
+        throw new IOException("Invalid number of snapshot species: " + count);
+      }
+      String[] names = new String[count];
+      for (int s = 0; s < count; s++) {
+        byte[] name = new byte[buffer.getShort()];
+        buffer.get(name);
+        names[s] = new String(name, StandardCharsets.UTF_8);
+      }
+      return names;
+    } catch (BufferUnderflowException | NegativeArraySizeException e) {
+      throw new IOException("Truncated snapshot species names", e);
+    }
+  }
+
+  private static ByteBuffer map(FileChannel channel, long[] offsets, int column, int size)
+      throws IOException {
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offsets[column],
+        (long) size * COLUMN_BYTES[column]);
+    return buffer.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static ByteBuffer mapForWrite(FileChannel channel, long[] offsets, int column,
+                                        int size) throws IOException {
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, offsets[column],
+        (long) size * COLUMN_BYTES[column]);
+    return buffer.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static short toShort(int value) {
+    if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Need value out of range: " + value);
+    }
+    return (short) value;
+  }
+
+  private static int[] columnBytes() {
+    int[] bytes = new int[COLUMNS];
+    Arrays.fill(bytes, 0, STREAK, Short.BYTES);
+    bytes[STREAK] = Integer.BYTES;
+    bytes[STATUS] = 1;
+    bytes[SPECIES] = 1;
+    return bytes;
+  }
+
+  private static byte status(MoodEnum mood, PetState state, boolean justWokeUp) {
+    int status = mood.ordinal() | state.ordinal() << STATE_SHIFT;
+    return (byte) (justWokeUp ? status | WOKE_UP_BIT : status);
+  }
+
+  /**
+   * Returns the number of pets in the snapshot.
+   *
+   * @return the number of pets
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the health status of a pet, reading only that pet's needs.
+   *
+   * @param index the index of the pet
+   * @return the saved health status
+   */
+  public HealthStatus getHealth(int index) {
+    return new HealthStatus(needsOf(index));
+  }
+
+  // Reads the value of every need of a pet
+  private int[] needsOf(int index) {
+    int[] values = new int[needs.length];
+    for (int n = 0; n < needs.length; n++) {
+      values[n] = needs[n].get(index);
+    }
+    return values;
+  }
+
+  public MoodEnum getMood(int index) {
+    return PetPopulation.MOODS[status.get(index) & MOOD_MASK];
+  }
+
+  public PetState getState(int index) {
+    return PetPopulation.STATES[(status.get(index) >> STATE_SHIFT) & STATE_MASK];
+  }
+
+  public int getHungerLowStreak(int index) {
+    return streak.get(index);
+  }
+
+  public boolean isJustWokeUp(int index) {
+    return (status.get(index) & WOKE_UP_BIT) != 0;
+  }
+
+  /**
+   * Returns the name of the species of a pet.
+   *
+   * @param index the index of the pet
+   * @return the saved name of the species
+   */
+  public String getSpeciesName(int index) {
+    return speciesNames[speciesOf(index)];
+  }
+
+  /**
+   * Returns the names of the species pets of the snapshot may belong to, in
+   * the order of the population that was saved.
+   *
+   * @return the saved names of the species
+   */
+  public List<String> getSpeciesNames() {
+    return List.of(speciesNames);
+  }
+
+  // Reads the position of a pet's species in the names
+  private int speciesOf(int index) {
+    int s = species.get(index) & 0xFF;
+    if (s >= speciesNames.length) {
+      throw new IllegalStateException("Invalid species " + s + " of pet " + index);
+    }
+    return s;
+  }
+
+  // Finds the position in the given species of each saved species, by name
+  private int[] match(List<SpeciesProfile> profiles) {
+    int[] positions = new int[speciesNames.length];
+    for (int s = 0; s < speciesNames.length; s++) {
+      positions[s] = -1;
+      for (int p = 0; p < profiles.size() && positions[s] < 0; p++) {
+        if (profiles.get(p).getName().equals(speciesNames[s])) {
+          positions[s] = p;
+        }
+      }
+      if (positions[s] < 0) {
+        throw new IllegalArgumentException("No species named " + speciesNames[s]);
+      }
+    }
+    return positions;
+  }
+
+  /**
+   * Recreates one pet from the snapshot.
+   *
+   * @param index the index of the pet
+   * @return a new pet in the saved state
+   * @throws IllegalArgumentException if the pet is not of the default species
+   */
+  public Pet toPet(int index) {
+    String name = getSpeciesName(index);
+    if (!name.equals(SpeciesProfile.DEFAULT.getName())) {
+      throw new IllegalArgumentException("A single pet follows the default rules, not those of "
+          + name);
+    }
+    Pet pet = new Pet();
+    pet.restore(needsOf(index), getMood(index), getState(index),
+        streak.get(index), isJustWokeUp(index));
+    return pet;
+  }
+
+  /**
+   * Copies the pets with indices in {@code [from, to)} into the same indices
+   * of a population, paging in only that range. Each pet is given the
+   * species of the population with the name of its saved species.
+   *
+   * @param population the population to fill
+   * @param from       the first index, inclusive
+   * @param to         the last index, exclusive
+   * @throws IllegalArgumentException if a saved species has no namesake in the population
+   */
+  public void loadInto(PetPopulation population, int from, int to) {
+    if (from < 0 || to > size || to > population.size() || from > to) {
+      throw new IndexOutOfBoundsException("Invalid range: [" + from + ", " + to + ")");
+    }
+    int[] positions = match(population.getSpeciesProfiles());
+    for (int i = from; i < to; i++) {
+      population.restore(i, positions[speciesOf(i)], needsOf(i), getMood(i), getState(i),
+          streak.get(i), isJustWokeUp(i));
+    }
+  }
+
+  /**
+   * Loads the whole snapshot into a new population of default pets.
+   *
+   * @return the restored population
+   * @throws IllegalArgumentException if the snapshot holds pets of other species
+   */
+  public PetPopulation toPopulation() {
+    return toPopulation(SpeciesProfile.DEFAULT);
+  }
+
+  /**
+   * Loads the whole snapshot into a new population of the given species,
+   * matched to the saved species by name. The population has the species
+   * in the order of the population that was saved.
+   *
+   * @param species the species of the pets, at least one for each saved name
+   * @return the restored population
+   * @throws IllegalArgumentException if a saved species is not given
+   */
+  public PetPopulation toPopulation(SpeciesProfile... species) {
+    int[] positions = match(List.of(species));
+    SpeciesProfile[] profiles = new SpeciesProfile[positions.length];
+    for (int s = 0; s < positions.length; s++) {
+      profiles[s] = species[positions[s]];
+    }
+    PetPopulation population = new PetPopulation(size, profiles);
+    loadInto(population, 0, size);
+    return population;
+  }
+
+  /**
+   * Closes the snapshot file. Columns stay mapped until they are garbage collected.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
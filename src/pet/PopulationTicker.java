@@ -0,0 +1,158 @@
+package pet;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steps large groups of pets in parallel on a fork-join pool.
+ * Pets are split into chunks of consecutive indices, and each chunk is
+ * stepped by a single worker, so a tick ends in the same states as a
+ * sequential run.
+ */
+public class PopulationTicker implements AutoCloseable {
+  // 8192 pets keep the need, mood and state columns of a chunk within L2 cache
+  public static final int DEFAULT_CHUNK_SIZE = 8192;
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+
+  /**
+   * Constructs a ticker using every available processor and the default chunk size.
+   */
+  public PopulationTicker() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructs a ticker with its own fork-join pool.
+   *
+   * @param parallelism the number of worker threads
+   * @param chunkSize   the number of consecutive pets stepped by one task
+   */
+  public PopulationTicker(int parallelism, int chunkSize) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+    }
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+    }
+    this.pool = new ForkJoinPool(parallelism);
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Advances time for every pet in the population by one step.
+   *
+   * @param population the population to step
+   */
+  public void tick(PetPopulation population) {
+    int size = population.size();
+    TickEvent event = new TickEvent();
+    event.begin();
+    if (size <= chunkSize) {
+      population.stepAll();
+    } else {
+      pool.invoke(new ChunkTask(0, chunkCount(size), population::stepRange, size));
+      population.endTick();
+    }
+    commit(event, size);
+  }
+
+  /**
+   * Advances time for every pet in the array by one step.
+   *
+   * @param pets the pets to step
+   */
+  public void tick(Pet[] pets) {
+    int size = pets.length;
+    TickEvent event = new TickEvent();
+    event.begin();
+    if (size <= chunkSize) {
+      stepPets(pets, 0, size);
+    } else {
+      pool.invoke(new ChunkTask(0, chunkCount(size),
+          (from, to) -> stepPets(pets, from, to), size));
+    }
+    commit(event, size);
+  }
+
+  private static void commit(TickEvent event, int size) {
+    if (event.shouldCommit()) {
+      event.petId = -1;
+      event.pets = size;
+      event.ticks = 1;
+      event.commit();
+    }
+  }
+
+  // Steps the pets in [from, to), counting the living ones once per chunk
+  private static void stepPets(Pet[] pets, int from, int to) {
+    int living = 0;
+    for (int i = from; i < to; i++) {
+      Pet pet = pets[i];
+      if (!pet.isDead()) {
+        pet.step();
+        living++;
+      }
+    }
+    PetMetrics metrics = PetMetrics.active();
+    if (metrics != null) {
+      metrics.countTicks(living);
+    }
+  }
+
+  private int chunkCount(int size) {
+    return (size + chunkSize - 1) / chunkSize;
+  }
+
+  public int getParallelism() {
+    return pool.getParallelism();
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Shuts down the worker threads of this ticker.
+   */
+  @Override
+  public void close() {
+    pool.shutdown();
+  }
+
+  /**
+   * Steps the pets in a range of indices.
+   */
+  private interface RangeStepper {
+    void step(int from, int to);
+  }
+
+  /**
+   * Splits a range of chunks in half until a single chunk is left, then steps it.
+   */
+  private final class ChunkTask extends RecursiveAction {
+    private final int firstChunk;
+    private final int endChunk;
+    private final RangeStepper stepper;
+    private final int size;
+
+    ChunkTask(int firstChunk, int endChunk, RangeStepper stepper, int size) {
+      this.firstChunk = firstChunk;
+      this.endChunk = endChunk;
+      this.stepper = stepper;
+      this.size = size;
+    }
+
+    @Override
+    protected void compute() {
+      if (endChunk - firstChunk == 1) {
+        int from = firstChunk * chunkSize;
+        stepper.step(from, from + Math.min(chunkSize, size - from));
+        return;
+      }
+      int middle = (firstChunk + endChunk) >>> 1;
+      invokeAll(new ChunkTask(firstChunk, middle, stepper, size),
+          new ChunkTask(middle, endChunk, stepper, size));
+    }
+  }
+}
@@ -5,9 +5,13 @@ package pet;
  */
 public class SadMood implements MoodStrategy {
   // The boost profile for a sad pet
-  private static final MoodBoostProfile BOOST = new MoodBoostProfile(-10, 10, -10, 10);
+  static final MoodBoostProfile BOOST = new MoodBoostProfile(-10, 10, -10, 10);
   // The decay profile for the a sad pet
-  private static final MoodDecayProfile DECAY = new MoodDecayProfile(10, -10, 10, -10);
+  static final MoodDecayProfile DECAY = new MoodDecayProfile(10, -10, 10, -10);
+  // How much hungrier a neglected pet gets
+  static final int NEGLECT_PENALTY = 5;
+  // Below this ratio of the maximum hunger, a pet given anything but food feels neglected
+  static final double NEGLECT_RATIO = 0.5;
   int hunger;
 
   /**
@@ -17,40 +21,25 @@ public class SadMood implements MoodStrategy {
    * @param pet    the pet to respond with
    */
   public void respondToAction(Action action, Pet pet) {
-    HealthStatus oldHealth = pet.getHealth();
-    int hunger = oldHealth.getHunger();
-    int hygiene = oldHealth.getHygiene();
-    int social = oldHealth.getSocial();
-    int sleep = oldHealth.getSleep();
+    int hunger = pet.getHunger();
 
-    switch (action) {
-      case FEED:
-        hunger = PetUtils.clamp(hunger + BOOST.hunger(), pet.getHungerLimits());
-        break;
-      case PLAY:
-        social = PetUtils.clamp(social + BOOST.social(), pet.getSocialLimits());
-        break;
-      case CLEAN:
-        hygiene = PetUtils.clamp(hygiene + BOOST.hygiene(), pet.getHygieneLimits());
-        break;
-      case SLEEP:
-        sleep = PetUtils.clamp(sleep + BOOST.sleep(), pet.getSleepLimits());
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid action: " + action);
-    }
+    // the action boosts the need it is for
+    Need need = Need.of(action);
+    int n = need.ordinal();
+    pet.setNeed(n, PetUtils.clamp(pet.getNeed(n) + BOOST.get(n), pet.getLimits(need)));
 
     // If hunger is low and the player chooses a non-feeding action,
     // the pet feels neglected and becomes slightly hungrier
-    if (oldHealth.getHunger() < pet.getHungerLimits().max() / 2 && action != Action.FEED) {
-      hunger = PetUtils.clamp(hunger + 5, pet.getHungerLimits());
+    int neglectBelow = SpeciesProfile.DEFAULT.rules[SpeciesProfile.NEGLECT_BELOW];
+    if (hunger < neglectBelow && action != Action.FEED) {
+      pet.setNeed(Need.HUNGER.ordinal(),
+          PetUtils.clamp(hunger + NEGLECT_PENALTY, pet.getLimits(Need.HUNGER)));
     }
-    pet.setHealth(new HealthStatus(hunger, hygiene, social, sleep));
   }
 
 
   @Override
   public void step(Pet pet) {
-    pet.setHealth(PetUtils.applyDecay(pet.getHealth(), DECAY));
+    pet.decay(DECAY);
   }
 }
@@ -0,0 +1,56 @@
+package pet;
+
+import java.util.Arrays;
+
+/**
+ * Applies decay to need columns one need at a time, so the deltas and limits
+ * of the need stay in registers while its column is swept.
+ * Used when the Vector API is not available.
+ */
+class ScalarDecayKernel implements DecayKernel {
+  static final NeedLimits[] DEFAULT_LIMITS =
+      Arrays.stream(Need.values()).map(Need::limits).toArray(NeedLimits[]::new);
+  private final int[] happy;
+  private final int[] sad;
+  private final int[] asleep;
+  private final int[] min;
+  private final int[] max;
+
+  ScalarDecayKernel(MoodDecayProfile happy, MoodDecayProfile sad, MoodDecayProfile asleep) {
+    this(happy, sad, asleep, DEFAULT_LIMITS);
+  }
+
+  ScalarDecayKernel(MoodDecayProfile happy, MoodDecayProfile sad, MoodDecayProfile asleep,
+                    NeedLimits[] limits) {
+    this.happy = happy.toArray();
+    this.sad = sad.toArray();
+    this.asleep = asleep.toArray();
+    this.min = new int[limits.length];
+    this.max = new int[limits.length];
+    for (int n = 0; n < limits.length; n++) {
+      min[n] = limits[n].min();
+      max[n] = limits[n].max();
+    }
+  }
+
+  @Override
+  public void apply(int[][] needs, byte[] mood, byte[] state, int from, int to) {
+    for (int n = 0; n < needs.length; n++) {
+      int[] column = needs[n];
+      int happyDelta = happy[n];
+      int sadDelta = sad[n];
+      int asleepDelta = asleep[n];
+      int low = min[n];
+      int high = max[n];
+      for (int i = from; i < to; i++) {
+        byte s = state[i];
+        if (s == PetPopulation.DEAD) {
+          continue;
+        }
+        int delta = s == PetPopulation.SLEEPING
+            ? asleepDelta : (mood[i] == PetPopulation.HAPPY ? happyDelta : sadDelta);
+        column[i] = Math.max(low, Math.min(column[i] + delta, high));
+      }
+    }
+  }
+}
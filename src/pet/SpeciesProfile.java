@@ -0,0 +1,554 @@
+package pet;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The rules a species of pets lives by: the limits of its needs, how they
+ * decay and respond to actions in every mood, which mood the pet is in, and
+ * when it dies. {@link #DEFAULT} holds the rules of {@link Pet}.
+ *
+ * <p>Profiles are loaded from properties files such as
+ * <pre>
+ * name=Cat
+ * limits.hunger=0,120
+ * decay.happy=4,-5,6,-5
+ * boost.sad=-12,10,-10,10
+ * sad.ratio=0.6
+ * mood.sick=hygiene&lt;=20
+ * mood.sick.until=hygiene&gt;=40
+ * </pre>
+ * where needs are listed in the order of {@link Need}, and
+ * every missing key takes its value from the default profile. The keys are
+ * {@code limits.<need>}, {@code decay.<mood>}, {@code decay.sleeping},
+ * {@code boost.<mood>}, {@code neglect.penalty}, {@code neglect.ratio},
+ * {@code sad.ratio}, {@code streak.ratio}, {@code streak.limit}, and for
+ * the moods other than happy and sad {@code mood.<mood>}, the condition to
+ * enter the mood, and {@code mood.<mood>.until}, the condition to leave it
+ * once in it. A mood without a condition is never entered, and its decay and
+ * boosts default to those of the sad mood.
+ *
+ * <p>At load time a profile is compiled into dense tables: the needs deltas
+ * of a step for every mood and state, the deltas of every action in every
+ * mood and state, and the mood state machine. The threshold checks of the
+ * moods are summed up in a bucket: the last mood whose condition to enter
+ * holds, whether the condition to leave the current mood holds, and whether
+ * the pet is sad. The next mood of a pet is looked up by its current mood
+ * and bucket, so the table grows linearly with the moods, and a population
+ * of many species steps with table lookups and no branching on the species.
+ */
+public final class SpeciesProfile {
+  static final MoodEnum[] MOODS = MoodEnum.values();
+  static final Need[] NEEDS = Need.values();
+  static final int NEED_COUNT = Need.COUNT;
+  static final int MOOD_COUNT = MOODS.length;
+  static final int STATE_COUNT = PetState.values().length;
+  static final int ACTION_COUNT = Action.values().length;
+  // The sizes of the compiled tables of one species
+  static final int STEP_SIZE = MOOD_COUNT * STATE_COUNT * NEED_COUNT;
+  static final int NEGLECT_SIZE = MOOD_COUNT * STATE_COUNT * ACTION_COUNT;
+  static final int ACTION_SIZE = NEGLECT_SIZE * NEED_COUNT;
+  static final int LIMIT_SIZE = 2 * NEED_COUNT;
+  // The rules, in order: hunger from which the streak grows, streak that makes
+  // a pet sad, hunger below which an unhappy pet feels neglected, then the sad
+  // threshold and the deadly limit of each need
+  static final int STREAK_THRESHOLD = 0;
+  static final int STREAK_LIMIT = 1;
+  static final int NEGLECT_BELOW = 2;
+  static final int SAD = 3;
+  static final int DEAD = SAD + NEED_COUNT;
+  static final int RULE_COUNT = DEAD + NEED_COUNT;
+  // Whether each need gets worse as it rises or as it falls
+  static final boolean[] RISING = rising();
+  // The source of predicate 0, which holds when the hunger streak makes a pet sad;
+  // the next NEED_COUNT predicates hold when a need is past its sad threshold
+  static final int STREAK = -1;
+  // The bits of a bucket below the position of the entered mood
+  static final int SAD_BIT = 1;
+  static final int UNTIL_BIT = 2;
+  static final int ENTERED_SHIFT = 2;
+  private static final int HAPPY_MOOD = MoodEnum.HAPPY.ordinal();
+  private static final int SAD_MOOD = MoodEnum.SAD.ordinal();
+  private static final Pattern CONDITION =
+      Pattern.compile("\\s*([a-z]+)\\s*(>=|<=)\\s*(-?\\d+)\\s*");
+  private static final Set<String> KEYS = keys();
+
+  /**
+   * The species of {@link Pet}.
+   */
+  public static final SpeciesProfile DEFAULT = new SpeciesProfile("default",
+      Arrays.stream(NEEDS).map(Need::limits).toArray(NeedLimits[]::new),
+      perMood(new MoodDecayProfile[MOOD_COUNT], HappyMood.DECAY, SadMood.DECAY),
+      Pet.SLEEP_DECAY, perMood(new MoodBoostProfile[MOOD_COUNT], HappyMood.BOOST, SadMood.BOOST),
+      SadMood.NEGLECT_PENALTY, SadMood.NEGLECT_RATIO,
+      Pet.SAD_RATIO, Pet.HUNGER_NEGLECT_RATIO, Pet.HUNGER_STREAK_LIMIT,
+      new Condition[MOOD_COUNT], new Condition[MOOD_COUNT]);
+
+  private final String name;
+  private final NeedLimits[] needLimits;
+  private final MoodDecayProfile[] decays;
+  private final MoodDecayProfile sleepDecay;
+  private final MoodBoostProfile[] boosts;
+  private final int neglectPenalty;
+  private final double neglectRatio;
+  private final double sadRatio;
+  private final double streakRatio;
+  private final int streakLimit;
+  // The conditions to enter and to leave each mood, null where there is none
+  private final Condition[] enters;
+  private final Condition[] untils;
+
+  // The compiled tables, read directly by the engines and never modified:
+  // stepDeltas[(mood * STATE_COUNT + state) * NEED_COUNT + need]
+  final int[] stepDeltas = new int[STEP_SIZE];
+  // actionDeltas[((mood * STATE_COUNT + state) * ACTION_COUNT + action) * NEED_COUNT + need]
+  final int[] actionDeltas = new int[ACTION_SIZE];
+  // the hunger penalty of a neglected pet, neglect[(mood * STATE_COUNT + state) * ACTION_COUNT
+  // + action], applied below the NEGLECT_BELOW rule
+  final int[] neglect = new int[NEGLECT_SIZE];
+  // limits[2 * need] is the minimum of a need and limits[2 * need + 1] its maximum
+  final int[] limits = new int[LIMIT_SIZE];
+  final int[] rules = new int[RULE_COUNT];
+  // Predicate p holds when sign * value >= bound, where the value is that of need
+  // predicateNeeds[p], or the hunger streak for STREAK
+  final int[] predicateNeeds;
+  final int[] predicateSigns;
+  final int[] predicateBounds;
+  // The predicates to enter a mood, in the order of the moods, and the mood each one enters
+  final int[] enterPredicates;
+  final int[] enteredMoods;
+  // The predicate to leave each mood, -1 where there is none
+  final int[] untilPredicates;
+  // A bucket is the position in enterPredicates of the last one that holds plus one,
+  // shifted by ENTERED_SHIFT, with UNTIL_BIT set if the predicate to leave the current mood
+  // holds and SAD_BIT set if no mood is entered and the streak or a need makes the pet sad
+  final int buckets;
+  // transitions[mood * buckets + bucket] is the ordinal of the next mood
+  final byte[] transitions;
+  // The rules read by the bulk engine
+  final Rules compiled;
+  // The kernel stepping a population of this species alone, null if its unhappy moods
+  // do not all decay alike
+  final DecayKernel kernel;
+
+  /**
+   * The rules of a species, as read by the bulk engine: the scalar rules,
+   * the predicates of the bucket, where predicate 0 is the streak and
+   * predicate 1 + n the sad threshold of need n, the deadly value of each
+   * need, and whether any mood beyond happy and sad has a condition, without
+   * which the next mood is sad exactly when the sad bit is set.
+   */
+  record Rules(int streakFrom, int streakLimit, int neglectBelow, int[] needs, int[] signs,
+               int[] bounds, int[] deadly, boolean moody, int[] enters, int[] untils,
+               int buckets, byte[] transitions) {
+  }
+
+  /**
+   * A threshold check on a need: {@code need >= value}, or {@code need <= value}.
+   */
+  record Condition(int need, boolean atLeast, int value) {
+    @Override
+    public String toString() {
+      return NEEDS[need].name().toLowerCase(Locale.ROOT) + (atLeast ? ">=" : "<=")
+          + value;
+    }
+  }
+
+  private SpeciesProfile(String name, NeedLimits[] needLimits, MoodDecayProfile[] decays,
+                         MoodDecayProfile sleepDecay, MoodBoostProfile[] boosts,
+                         int neglectPenalty, double neglectRatio, double sadRatio,
+                         double streakRatio, int streakLimit, Condition[] enters,
+                         Condition[] untils) {
+    this.name = name;
+    this.needLimits = needLimits;
+    this.decays = decays;
+    this.sleepDecay = sleepDecay;
+    this.boosts = boosts;
+    this.neglectPenalty = neglectPenalty;
+    this.neglectRatio = neglectRatio;
+    this.sadRatio = sadRatio;
+    this.streakRatio = streakRatio;
+    this.streakLimit = streakLimit;
+    this.enters = enters;
+    this.untils = untils;
+    compileTables();
+    compileRules();
+
+    // the predicates: the streak, the sad threshold of each need, then the mood conditions
+    int entered = 0;
+    int count = 1 + NEED_COUNT;
+    for (int m = 0; m < MOOD_COUNT; m++) {
+      entered += enters[m] != null ? 1 : 0;
+      count += (enters[m] != null ? 1 : 0) + (untils[m] != null ? 1 : 0);
+    }
+    this.predicateNeeds = new int[count];
+    this.predicateSigns = new int[count];
+    this.predicateBounds = new int[count];
+    this.enterPredicates = new int[entered];
+    this.enteredMoods = new int[entered];
+    this.untilPredicates = new int[MOOD_COUNT];
+    predicateNeeds[0] = STREAK;
+    predicateSigns[0] = 1;
+    predicateBounds[0] = streakLimit;
+    for (int n = 0; n < NEED_COUNT; n++) {
+      predicate(1 + n, new Condition(n, RISING[n], rules[SAD + n]));
+    }
+    int p = 1 + NEED_COUNT;
+    int e = 0;
+    for (int m = 0; m < MOOD_COUNT; m++) {
+      if (enters[m] != null) {
+        enteredMoods[e] = m;
+        enterPredicates[e++] = predicate(p++, enters[m]);
+      }
+      untilPredicates[m] = untils[m] == null ? -1 : predicate(p++, untils[m]);
+    }
+    this.buckets = (entered + 1) << ENTERED_SHIFT;
+    this.transitions = compileTransitions();
+    this.compiled = new Rules(rules[STREAK_THRESHOLD], rules[STREAK_LIMIT],
+        rules[NEGLECT_BELOW], predicateNeeds, predicateSigns, predicateBounds,
+        Arrays.copyOfRange(rules, DEAD, DEAD + NEED_COUNT), count > 1 + NEED_COUNT,
+        enterPredicates, untilPredicates, buckets, transitions);
+
+    boolean alike = true;
+    for (int m = 0; m < MOOD_COUNT; m++) {
+      alike &= m == HAPPY_MOOD || decays[m].equals(decays[SAD_MOOD]);
+    }
+    this.kernel = alike ? DecayKernel.create(decays[HAPPY_MOOD], decays[SAD_MOOD], sleepDecay,
+        needLimits) : null;
+  }
+
+  // Fills in predicate p with the given condition, returning p
+  private int predicate(int p, Condition condition) {
+    int sign = condition.atLeast() ? 1 : -1;
+    predicateNeeds[p] = condition.need();
+    predicateSigns[p] = sign;
+    predicateBounds[p] = sign * condition.value();
+    return p;
+  }
+
+  private void compileTables() {
+    for (int n = 0; n < NEED_COUNT; n++) {
+      limits[2 * n] = needLimits[n].min();
+      limits[2 * n + 1] = needLimits[n].max();
+    }
+    int active = PetState.Active.ordinal();
+    int sleeping = PetState.Sleeping.ordinal();
+    int[] asleep = sleepDecay.toArray();
+    for (int m = 0; m < MOOD_COUNT; m++) {
+      // dead pets keep rows of zeros
+      int[] awake = decays[m].toArray();
+      System.arraycopy(awake, 0, stepDeltas, (m * STATE_COUNT + active) * NEED_COUNT, NEED_COUNT);
+      System.arraycopy(asleep, 0, stepDeltas, (m * STATE_COUNT + sleeping) * NEED_COUNT,
+          NEED_COUNT);
+      // a sleeping pet only wakes up, so only active pets respond to actions
+      int[] boost = boosts[m].toArray();
+      for (Action action : Action.values()) {
+        int a = action.ordinal();
+        int row = (m * STATE_COUNT + active) * ACTION_COUNT + a;
+        int need = Need.of(action).ordinal();
+        actionDeltas[row * NEED_COUNT + need] = boost[need];
+        neglect[row] = m != HAPPY_MOOD && action != Action.FEED ? neglectPenalty : 0;
+      }
+    }
+  }
+
+  private void compileRules() {
+    int hungerMax = needLimits[Need.HUNGER.ordinal()].max();
+    rules[STREAK_THRESHOLD] = (int) Math.ceil(hungerMax * streakRatio);
+    rules[STREAK_LIMIT] = streakLimit;
+    // rounded down like the max / 2 of the original pet, so odd maxima keep its boundary
+    rules[NEGLECT_BELOW] = (int) Math.floor(hungerMax * neglectRatio);
+    for (int n = 0; n < NEED_COUNT; n++) {
+      // the integer forms of value >= max * ratio and value <= max * ratio
+      double threshold = needLimits[n].max() * sadRatio;
+      rules[SAD + n] = (int) (RISING[n] ? Math.ceil(threshold) : Math.floor(threshold));
+      rules[DEAD + n] = NEEDS[n].deadly(needLimits[n]);
+    }
+  }
+
+  // A pet stays in a mood it has a condition to leave until that condition holds. Otherwise
+  // it enters the last mood whose condition holds, or is sad if the sad bit is set
+  private byte[] compileTransitions() {
+    byte[] table = new byte[MOOD_COUNT * buckets];
+    for (int m = 0; m < MOOD_COUNT; m++) {
+      for (int bucket = 0; bucket < buckets; bucket++) {
+        int entered = (bucket >>> ENTERED_SHIFT) - 1;
+        int next = entered >= 0 ? enteredMoods[entered]
+            : (bucket & SAD_BIT) != 0 ? SAD_MOOD : HAPPY_MOOD;
+        if (untilPredicates[m] >= 0 && (bucket & UNTIL_BIT) == 0) {
+          next = m;
+        }
+        table[m * buckets + bucket] = (byte) next;
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Returns the bucket of a pet in the given mood with the given needs and
+   * hunger streak. Only the checks the bucket depends on are made: the
+   * conditions to enter moods from the last one that holds, the condition to
+   * leave the current mood, and the sad checks when no mood is entered.
+   */
+  int bucket(int mood, int[] needs, int streak) {
+    int bucket = 0;
+    for (int e = enterPredicates.length - 1; e >= 0; e--) {
+      if (holds(enterPredicates[e], needs)) {
+        bucket = (e + 1) << ENTERED_SHIFT;
+        break;
+      }
+    }
+    int until = untilPredicates[mood];
+    if (until >= 0 && holds(until, needs)) {
+      bucket |= UNTIL_BIT;
+    }
+    if (bucket >>> ENTERED_SHIFT == 0 && (streak >= predicateBounds[0] || isSad(needs))) {
+      bucket |= SAD_BIT;
+    }
+    return bucket;
+  }
+
+  // Checks if any need is past its sad threshold, predicate 1 + n
+  private boolean isSad(int[] needs) {
+    for (int n = 0; n < NEED_COUNT; n++) {
+      if (holds(1 + n, needs)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Checks if predicate p, on a need, holds for the given needs
+  private boolean holds(int p, int[] needs) {
+    return predicateSigns[p] * needs[predicateNeeds[p]] >= predicateBounds[p];
+  }
+
+  /**
+   * Returns the ordinal of the mood a pet in the given mood moves to from
+   * the given bucket.
+   */
+  int transition(int mood, int bucket) {
+    return transitions[mood * buckets + bucket];
+  }
+
+  /**
+   * Returns the mood a pet in the given mood moves to when updated with the
+   * given needs and hunger streak.
+   */
+  MoodEnum nextMood(MoodEnum mood, int[] needs, int streak) {
+    return MOODS[transition(mood.ordinal(), bucket(mood.ordinal(), needs, streak))];
+  }
+
+  private static boolean[] rising() {
+    boolean[] rising = new boolean[NEED_COUNT];
+    for (Need need : NEEDS) {
+      rising[need.ordinal()] = need.rising();
+    }
+    return rising;
+  }
+
+  // Fills in a profile for every mood, the happy one for happy pets and the sad one otherwise
+  private static <T> T[] perMood(T[] profiles, T happy, T sad) {
+    Arrays.fill(profiles, sad);
+    profiles[HAPPY_MOOD] = happy;
+    return profiles;
+  }
+
+  private static String key(MoodEnum mood) {
+    return mood.name().toLowerCase(Locale.ROOT);
+  }
+
+  private static Set<String> keys() {
+    Set<String> keys = new HashSet<>(Set.of("name", "decay.sleeping", "neglect.penalty",
+        "neglect.ratio", "sad.ratio", "streak.ratio", "streak.limit"));
+    for (Need need : NEEDS) {
+      keys.add("limits." + need.name().toLowerCase(Locale.ROOT));
+    }
+    for (MoodEnum mood : MoodEnum.values()) {
+      keys.add("decay." + key(mood));
+      keys.add("boost." + key(mood));
+      if (mood != MoodEnum.HAPPY && mood != MoodEnum.SAD) {
+        keys.add("mood." + key(mood));
+        keys.add("mood." + key(mood) + ".until");
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Loads a profile from a properties file in UTF-8.
+   *
+   * @param path the file to read
+   * @return the compiled profile
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file holds an unknown key or an invalid value
+   */
+  public static SpeciesProfile load(Path path) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    return fromProperties(properties);
+  }
+
+  /**
+   * Compiles a profile from properties, taking every missing key from
+   * {@link #DEFAULT}.
+   *
+   * @param properties the keys and values of the profile
+   * @return the compiled profile
+   * @throws IllegalArgumentException if there is an unknown key or an invalid value
+   */
+  public static SpeciesProfile fromProperties(Properties properties) {
+    for (String key : properties.stringPropertyNames()) {
+      if (!KEYS.contains(key)) {
+        throw new IllegalArgumentException("Unknown species property: " + key);
+      }
+    }
+    SpeciesProfile base = DEFAULT;
+    NeedLimits[] needLimits = new NeedLimits[NEED_COUNT];
+    for (Need need : NEEDS) {
+      String key = "limits." + need.name().toLowerCase(Locale.ROOT);
+      NeedLimits limits = base.needLimits[need.ordinal()];
+      if (properties.containsKey(key)) {
+        int[] values = ints(properties, key, 2);
+        limits = new NeedLimits(values[0], values[1]);
+      }
+      if (limits.min() >= limits.max() || limits.min() < Short.MIN_VALUE
+          || limits.max() > Short.MAX_VALUE) {
+        throw new IllegalArgumentException("Invalid limits of " + need + ": " + limits);
+      }
+      needLimits[need.ordinal()] = limits;
+    }
+    int streakLimit = properties.containsKey("streak.limit")
+        ? ints(properties, "streak.limit", 1)[0] : base.streakLimit;
+    if (streakLimit < 1) {
+      throw new IllegalArgumentException("Invalid streak.limit: " + streakLimit);
+    }
+    MoodDecayProfile[] decays = new MoodDecayProfile[MOOD_COUNT];
+    MoodBoostProfile[] boosts = new MoodBoostProfile[MOOD_COUNT];
+    Condition[] enters = new Condition[MOOD_COUNT];
+    Condition[] untils = new Condition[MOOD_COUNT];
+    // happy and sad first, since the other moods default to sad
+    for (MoodEnum mood : MoodEnum.values()) {
+      int m = mood.ordinal();
+      boolean own = mood == MoodEnum.HAPPY || mood == MoodEnum.SAD;
+      decays[m] = decay(properties, "decay." + key(mood),
+          own ? base.decays[m] : decays[SAD_MOOD]);
+      boosts[m] = boost(properties, "boost." + key(mood),
+          own ? base.boosts[m] : boosts[SAD_MOOD]);
+      enters[m] = condition(properties, "mood." + key(mood));
+      untils[m] = condition(properties, "mood." + key(mood) + ".until");
+    }
+    return new SpeciesProfile(properties.getProperty("name", base.name), needLimits, decays,
+        decay(properties, "decay.sleeping", base.sleepDecay), boosts,
+        properties.containsKey("neglect.penalty")
+            ? ints(properties, "neglect.penalty", 1)[0] : base.neglectPenalty,
+        ratio(properties, "neglect.ratio", base.neglectRatio),
+        ratio(properties, "sad.ratio", base.sadRatio),
+        ratio(properties, "streak.ratio", base.streakRatio),
+        streakLimit, enters, untils);
+  }
+
+  private static MoodDecayProfile decay(Properties properties, String key,
+                                        MoodDecayProfile otherwise) {
+    if (!properties.containsKey(key)) {
+      return otherwise;
+    }
+    return new MoodDecayProfile(ints(properties, key, NEED_COUNT));
+  }
+
+  private static MoodBoostProfile boost(Properties properties, String key,
+                                        MoodBoostProfile otherwise) {
+    if (!properties.containsKey(key)) {
+      return otherwise;
+    }
+    return new MoodBoostProfile(ints(properties, key, NEED_COUNT));
+  }
+
+  // Parses a condition such as "hygiene<=20", or returns null if the key is missing
+  private static Condition condition(Properties properties, String key) {
+    String value = properties.getProperty(key);
+    if (value == null) {
+      return null;
+    }
+    Matcher matcher = CONDITION.matcher(value);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid condition of " + key + ": " + value);
+    }
+    Need need;
+    int threshold;
+    try {
+      need = Need.valueOf(matcher.group(1).toUpperCase(Locale.ROOT));
+      threshold = Integer.parseInt(matcher.group(3));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid condition of " + key + ": " + value, e);
+    }
+    return new Condition(need.ordinal(), matcher.group(2).equals(">="), threshold);
+  }
+
+  // Parses a comma separated list of the given number of integers
+  private static int[] ints(Properties properties, String key, int count) {
+    String value = properties.getProperty(key);
+    String[] parts = value.split(",");
+    if (parts.length != count) {
+      throw new IllegalArgumentException("Expected " + count + " values for " + key + ": "
+          + value);
+    }
+    int[] values = new int[count];
+    try {
+      for (int k = 0; k < count; k++) {
+        values[k] = Integer.parseInt(parts[k].trim());
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid value of " + key + ": " + value, e);
+    }
+    return values;
+  }
+
+  private static double ratio(Properties properties, String key, double otherwise) {
+    if (!properties.containsKey(key)) {
+      return otherwise;
+    }
+    String value = properties.getProperty(key).trim();
+    double ratio;
+    try {
+      ratio = Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid value of " + key + ": " + value, e);
+    }
+    if (!(ratio >= 0 && ratio <= 1)) {
+      throw new IllegalArgumentException("Invalid value of " + key + ": " + value);
+    }
+    return ratio;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the limits of a need of this species.
+   *
+   * @param need the need
+   * @return the limits of the need
+   */
+  public NeedLimits getLimits(Need need) {
+    return needLimits[need.ordinal()];
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,42 @@
+package pet;
+
+/**
+ * Represents when an {@link ActionJournal} forces appended records to disk.
+ * Records are synced once {@code batchSize} of them are pending, or once the
+ * oldest pending record is {@code maxDelayMillis} old. The delay is checked
+ * when records are appended. A value of 0 disables that trigger, and
+ * {@link ActionJournal#sync()} or {@link ActionJournal#close()} always sync.
+ *
+ * @param batchSize      the number of pending records that triggers a sync
+ * @param maxDelayMillis the age of pending records that triggers a sync
+ */
+public record SyncPolicy(int batchSize, long maxDelayMillis) {
+  // Leaves writing back to the operating system
+  public static final SyncPolicy NONE = new SyncPolicy(0, 0);
+  // Syncs after every record
+  public static final SyncPolicy EVERY_RECORD = new SyncPolicy(1, 0);
+
+  /**
+   * Validates the policy.
+   *
+   * @param batchSize      the number of pending records that triggers a sync
+   * @param maxDelayMillis the age of pending records that triggers a sync
+   */
+  public SyncPolicy {
+    if (batchSize < 0 || maxDelayMillis < 0) {
+      throw new IllegalArgumentException(
+          "Invalid sync policy: " + batchSize + " records, " + maxDelayMillis + " ms");
+    }
+  }
+
+  /**
+   * Creates a group commit policy.
+   *
+   * @param batchSize      the number of pending records that triggers a sync
+   * @param maxDelayMillis the age of pending records that triggers a sync
+   * @return the policy
+   */
+  public static SyncPolicy group(int batchSize, long maxDelayMillis) {
+    return new SyncPolicy(batchSize, maxDelayMillis);
+  }
+}
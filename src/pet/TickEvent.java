@@ -0,0 +1,25 @@
+package pet;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for time passing, for one pet or a whole population.
+ */
+@Name("pet.Tick")
+@Label("Pet Tick")
+@Category("Virtual Pet")
+@Description("Time passing for one pet, or one tick of many pets")
+class TickEvent extends jdk.jfr.Event {
+  @Label("Pet Id")
+  @Description("The id of the pet, or -1 for many pets")
+  int petId;
+
+  @Label("Pets")
+  int pets;
+
+  @Label("Ticks")
+  long ticks;
+}
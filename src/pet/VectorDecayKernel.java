@@ -0,0 +1,79 @@
+package pet;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Applies decay to need columns with the Vector API.
+ * Mood and state are widened to int lanes and turned into masks: the sad
+ * deltas are blended over the happy ones of every unhappy pet, the sleep deltas over both, and
+ * dead lanes are left out of the store.
+ * Only loaded through {@link DecayKernel#create}, after checking that the
+ * vector module is present.
+ */
+class VectorDecayKernel implements DecayKernel {
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+  // Byte lanes are loaded at least 64 bits at a time, and only the first INTS.length() are used
+  private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class,
+      VectorShape.forBitSize(Math.max(64, INTS.length() * Byte.SIZE)));
+  private final ScalarDecayKernel tail;
+  private final int[] happy;
+  private final int[] sad;
+  private final int[] asleep;
+  private final int[] min;
+  private final int[] max;
+
+  VectorDecayKernel(MoodDecayProfile happy, MoodDecayProfile sad, MoodDecayProfile asleep,
+                    NeedLimits[] limits) {
+    this.tail = new ScalarDecayKernel(happy, sad, asleep, limits);
+    this.happy = happy.toArray();
+    this.sad = sad.toArray();
+    this.asleep = asleep.toArray();
+    this.min = new int[limits.length];
+    this.max = new int[limits.length];
+    for (int n = 0; n < limits.length; n++) {
+      min[n] = limits[n].min();
+      max[n] = limits[n].max();
+    }
+  }
+
+  @Override
+  public void apply(int[][] needs, byte[] mood, byte[] state, int from, int to) {
+    int i = from;
+    for (; i + BYTES.length() <= to; i += INTS.length()) {
+      IntVector states = widen(state, i);
+      VectorMask<Integer> alive = states.compare(VectorOperators.NE, PetPopulation.DEAD);
+      if (!alive.anyTrue()) {
+        continue;
+      }
+      VectorMask<Integer> sleeping = states.compare(VectorOperators.EQ, PetPopulation.SLEEPING);
+      VectorMask<Integer> sadLanes =
+          widen(mood, i).compare(VectorOperators.NE, PetPopulation.HAPPY);
+      for (int n = 0; n < needs.length; n++) {
+        decay(needs[n], i, n, alive, sleeping, sadLanes);
+      }
+    }
+    tail.apply(needs, mood, state, i, to);
+  }
+
+  private static IntVector widen(byte[] column, int offset) {
+    return (IntVector) ByteVector.fromArray(BYTES, column, offset)
+        .convertShape(VectorOperators.B2I, INTS, 0);
+  }
+
+  private void decay(int[] column, int offset, int need, VectorMask<Integer> alive,
+                     VectorMask<Integer> sleeping, VectorMask<Integer> sadLanes) {
+    IntVector delta = IntVector.broadcast(INTS, happy[need])
+        .blend(sad[need], sadLanes)
+        .blend(asleep[need], sleeping);
+    IntVector.fromArray(INTS, column, offset)
+        .add(delta)
+        .min(max[need])
+        .max(min[need])
+        .intoArray(column, offset, alive);
+  }
+}
@@ -0,0 +1,77 @@
+package view;
+
+import java.awt.BorderLayout;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JToggleButton;
+import javax.swing.SwingConstants;
+import javax.swing.event.TableModelEvent;
+
+/**
+ * The PetDashboard class shows a whole population of pets in one table, for operators
+ * watching many pets at once. The table only renders the rows that are visible, and
+ * sorts by any column when its header is clicked.
+ */
+public class PetDashboard extends JFrame {
+  private final PopulationTableModel model;
+  private final JTable table;
+  private final JLabel summaryLabel;
+  private final JToggleButton autoButton;
+  private long summaryTick = -1;
+
+  /**
+   * Constructs a dashboard showing the given model.
+   *
+   * @param model the population to show
+   */
+  public PetDashboard(PopulationTableModel model) {
+    this.model = model;
+    setTitle("Virtual Pet Dashboard");
+    setSize(800, 600);
+    setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    setLayout(new BorderLayout());
+
+    table = new JTable(model);
+    // sorting happens when a header is clicked, not on every tick
+    table.setAutoCreateRowSorter(true);
+    table.setFillsViewportHeight(true);
+    add(new JScrollPane(table), BorderLayout.CENTER);
+
+    summaryLabel = new JLabel("", SwingConstants.CENTER);
+    autoButton = new JToggleButton("Auto");
+    JPanel bottomPanel = new JPanel(new BorderLayout());
+    bottomPanel.add(summaryLabel, BorderLayout.CENTER);
+    bottomPanel.add(autoButton, BorderLayout.EAST);
+    add(bottomPanel, BorderLayout.SOUTH);
+
+    model.addTableModelListener(this::updateSummary);
+    updateSummary(null);
+  }
+
+  // Called for every changed cell, but the summary only changes once per tick
+  private void updateSummary(TableModelEvent e) {
+    if (model.getTick() == summaryTick && e != null
+        && e.getLastRow() != TableModelEvent.HEADER_ROW && e.getLastRow() != Integer.MAX_VALUE) {
+      return;
+    }
+    summaryTick = model.getTick();
+    summaryLabel.setText("Tick " + model.getTick() + " - " + model.getRowCount() + " pets, "
+        + model.getDeadCount() + " dead");
+  }
+
+  /**
+   * Returns the toggle button that lets time pass on its own.
+   *
+   * @return the auto button component
+   */
+  public JToggleButton getAutoButton() {
+    return autoButton;
+  }
+
+  public JTable getTable() {
+    return table;
+  }
+}
@@ -2,18 +2,18 @@ package view;
 
 import java.awt.BorderLayout;
 import java.awt.GridLayout;
-import java.awt.Image;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import javax.imageio.ImageIO;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JToggleButton;
 import javax.swing.SwingConstants;
+import pet.Need;
 
 /**
  * The PetView class represents the graphical user interface for the Virtual Pet application.
@@ -28,11 +28,16 @@ public class PetView extends JFrame {
   private final JButton cleanButton;
   private final JButton sleepButton;
   private final JButton stepButton;
-  private final NeedStatusPanel hungerPanel;
-  private final NeedStatusPanel hygienePanel;
-  private final NeedStatusPanel sleepPanel;
-  private final NeedStatusPanel socialPanel;
+  private final JToggleButton autoButton;
+  private final JComboBox<String> speedBox;
+  // One panel per need, in the order of Need
+  private final NeedStatusPanel[] needPanels = new NeedStatusPanel[Need.COUNT];
   private final JLabel statusLabel;
+  private static final int MAX_SPRITE_SIZE = 256;
+  private static final int MIN_SPRITE_SIZE = 32;
+  private final SpriteCache sprites = new SpriteCache();
+  private String shownImage;
+  private int shownSize;
 
 
   /**
@@ -42,22 +47,17 @@ public class PetView extends JFrame {
    */
   public PetView() {
     setTitle("Virtual Pet");
-    setSize(600, 400); // Increase the size of the window
+    setSize(800, 400); // Increase the size of the window
     setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
     setLayout(new BorderLayout());
 
     // Mini-panels for each stat
 
-    hungerPanel = new NeedStatusPanel("Hunger");
-    hygienePanel = new NeedStatusPanel("Hygiene");
-    sleepPanel = new NeedStatusPanel("Sleep");
-    socialPanel = new NeedStatusPanel("Social");
-
-    JPanel needsPanel = new JPanel(new GridLayout(2, 2)); // 2x2 display
-    needsPanel.add(hungerPanel);
-    needsPanel.add(hygienePanel);
-    needsPanel.add(sleepPanel);
-    needsPanel.add(socialPanel);
+    JPanel needsPanel = new JPanel(new GridLayout(0, 2)); // two panels per row
+    for (Need need : Need.values()) {
+      needPanels[need.ordinal()] = new NeedStatusPanel(need.label());
+      needsPanel.add(needPanels[need.ordinal()]);
+    }
 
     JPanel statusPanel = new JPanel(new GridLayout(3, 1));
     statusPanel.add(needsPanel);
@@ -73,23 +73,37 @@ public class PetView extends JFrame {
     // Image Display
     imageLabel = new JLabel();
     imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+    imageLabel.addComponentListener(new ComponentAdapter() {
+      @Override
+      public void componentResized(ComponentEvent e) {
+        // scaled sprites no longer fit, so scale them again for the new size
+        sprites.invalidate();
+        if (shownImage != null) {
+          updateImage(shownImage);
+        }
+      }
+    });
     add(imageLabel, BorderLayout.CENTER);
 
     // Interaction Buttons
     JPanel buttonPanel = new JPanel();
-    buttonPanel.setLayout(new GridLayout(1, 5, 10, 10)); // Set layout to 1 row and 5 columns
+    buttonPanel.setLayout(new GridLayout(1, 7, 10, 10)); // Set layout to 1 row and 7 columns
 
     feedButton = new JButton("Feed");
     playButton = new JButton("Play");
     cleanButton = new JButton("Clean");
     sleepButton = new JButton("Sleep");
     stepButton = new JButton("Step");
+    autoButton = new JToggleButton("Auto");
+    speedBox = new JComboBox<>(new String[] {"1x", "10x", "100x", "1000x"});
 
     buttonPanel.add(feedButton);
     buttonPanel.add(playButton);
     buttonPanel.add(cleanButton);
     buttonPanel.add(sleepButton);
     buttonPanel.add(stepButton);
+    buttonPanel.add(autoButton);
+    buttonPanel.add(speedBox);
 
     add(buttonPanel, BorderLayout.SOUTH); // Add the panel to the bottom of the window
 
@@ -109,52 +123,50 @@ public class PetView extends JFrame {
   }
 
   /**
-   * Updates the need panels with the specified values.
-   * Each panel is updated with a value and a boolean indicating if the value is in a good state.
+   * Updates the panel of one need.
+   * The panel shows a warning once the need is halfway to its worst value.
    *
-   * @param hunger  the hunger value
-   * @param hygiene the hygiene value
-   * @param social  the social value
-   * @param sleep   the sleep value
+   * @param need  the need
+   * @param value the value of the need
    */
-  public void updateNeedPanels(int hunger, int hygiene, int social, int sleep) {
-    hungerPanel.updateValue(hunger, hunger >= 50);
-    hygienePanel.updateValue(hygiene, hygiene <= 50);
-    socialPanel.updateValue(social, social >= 50);
-    sleepPanel.updateValue(sleep, sleep <= 50);
+  public void updateNeed(Need need, int value) {
+    int half = need.limits().max() / 2;
+    needPanels[need.ordinal()].updateValue(value, need.rising() ? value >= half : value <= half);
   }
 
   /**
    * Updates the pet's image based on the specified image name.
    * If the image file does not exist, it sets the label to display the image name in uppercase.
+   * Sprites come from a cache, and nothing is done when the same image is already shown.
    *
    * @param imageName the name of the image file
    */
   public void updateImage(String imageName) {
-    try {
-      InputStream imageStream =
-          getClass().getResourceAsStream("/images/" + imageName.toLowerCase() + ".png");
-
-      if (imageStream == null) {
-        File imageFile = new File("/images/" + imageName.toLowerCase() + ".png");
-        if (imageFile.exists()) {
-          imageStream = new FileInputStream(imageFile);
-        } else {
-          imageLabel.setIcon(null);
-          imageLabel.setText(imageName.toUpperCase() + " (Image not found)");
-          return;
-        }
-      }
-      Image image = ImageIO.read(imageStream);
-      Image scaledImage = image.getScaledInstance(256, 256, Image.SCALE_SMOOTH);
-      imageLabel.setIcon(new ImageIcon(scaledImage));
-      imageStream.close();
-    } catch (IOException e) {
+    int size = spriteSize();
+    if (imageName.equalsIgnoreCase(shownImage) && size == shownSize) {
+      return;
+    }
+    shownImage = imageName;
+    shownSize = size;
+    BufferedImage sprite = sprites.get(imageName, size, imageLabel.getGraphicsConfiguration());
+    if (sprite == null) {
       imageLabel.setIcon(null);
       imageLabel.setText(imageName.toUpperCase() + " (Image not found)");
+    } else {
+      imageLabel.setIcon(new ImageIcon(sprite));
     }
   }
 
+  // Sprites are 256 pixels wide, unless the window leaves less room for them
+  private int spriteSize() {
+    int width = imageLabel.getWidth();
+    int height = imageLabel.getHeight();
+    if (width <= 0 || height <= 0) {
+      return MAX_SPRITE_SIZE;
+    }
+    return Math.max(MIN_SPRITE_SIZE, Math.min(MAX_SPRITE_SIZE, Math.min(width, height)));
+  }
+
   /**
    * Updates the mood label with the specified text.
    *
@@ -209,6 +221,34 @@ public class PetView extends JFrame {
     return stepButton;
   }
 
+  /**
+   * Returns the toggle button that lets time pass on its own.
+   *
+   * @return the auto button component
+   */
+  public JToggleButton getAutoButton() {
+    return autoButton;
+  }
+
+  /**
+   * Returns the speed multiplier selected by the user.
+   *
+   * @return the selected speed, such as 10 for "10x"
+   */
+  public double getSelectedSpeed() {
+    String speed = (String) speedBox.getSelectedItem();
+    return Double.parseDouble(speed.substring(0, speed.length() - 1));
+  }
+
+  /**
+   * Returns the speed selector for attaching listeners.
+   *
+   * @return the speed combo box component
+   */
+  public JComboBox<String> getSpeedBox() {
+    return speedBox;
+  }
+
   /**
    * Sets the pet's image to a "dead" state and disables all interaction buttons.
    * This method is called when the pet's health reaches a critical state.
@@ -222,6 +262,9 @@ public class PetView extends JFrame {
     cleanButton.setEnabled(false);
     sleepButton.setEnabled(false);
     stepButton.setEnabled(false);
+    autoButton.setSelected(false);
+    autoButton.setEnabled(false);
+    speedBox.setEnabled(false);
   }
 
   /**
@@ -0,0 +1,223 @@
+package view;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import pet.MoodEnum;
+import pet.Need;
+import pet.PetPopulation;
+import pet.PetState;
+
+/**
+ * A table model showing one row per pet of a population.
+ *
+ * <p>The population is copied into a frame by {@link #capture(PetPopulation)}
+ * on the thread that steps it, and the latest frame is shown on the event
+ * dispatch thread. Frames are recycled, so capturing allocates nothing once
+ * the table is running. When a frame is shown, only the cells whose values
+ * changed are reported to the table, which then repaints just the changed
+ * cells that are visible.
+ */
+public class PopulationTableModel extends AbstractTableModel {
+  static final int PET = 0;
+  // The column of need n is FIRST_NEED + n
+  static final int FIRST_NEED = 1;
+  static final int MOOD = FIRST_NEED + Need.COUNT;
+  static final int STATE = MOOD + 1;
+  // Past this many changed cells, one event for the changed rows is cheaper than one per cell
+  static final int CELL_EVENT_LIMIT = 4096;
+  private static final String[] COLUMN_NAMES = columnNames();
+  private static final Class<?>[] COLUMN_CLASSES = columnClasses();
+
+  private final AtomicReference<Frame> pending = new AtomicReference<>();
+  // A frame the event dispatch thread no longer needs, for the next capture to fill
+  private final AtomicReference<Frame> spare = new AtomicReference<>();
+  // Only touched on the event dispatch thread
+  private Frame shown = new Frame(0);
+
+  // The values of every pet at one tick
+  private static final class Frame {
+    // needs[need][pet]
+    final int[][] needs;
+    final MoodEnum[] mood;
+    final PetState[] state;
+    long tick;
+    int dead;
+
+    Frame(int size) {
+      needs = new int[Need.COUNT][size];
+      mood = new MoodEnum[size];
+      state = new PetState[size];
+    }
+
+    int size() {
+      return mood.length;
+    }
+  }
+
+  /**
+   * Copies the population and schedules it to be shown, replacing any copy
+   * that is still waiting. The population must not change during the call.
+   *
+   * @param population the pets to show
+   * @param tick       the number of ticks the population has run
+   */
+  public void capture(PetPopulation population, long tick) {
+    int size = population.size();
+    Frame frame = spare.getAndSet(null);
+    if (frame == null || frame.size() != size) {
+      frame = new Frame(size);
+    }
+    int dead = 0;
+    for (Need need : Need.values()) {
+      int[] column = frame.needs[need.ordinal()];
+      for (int i = 0; i < size; i++) {
+        column[i] = population.getNeed(i, need);
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      frame.mood[i] = population.getMood(i);
+      frame.state[i] = population.getState(i);
+      if (frame.state[i] == PetState.Dead) {
+        dead++;
+      }
+    }
+    frame.tick = tick;
+    frame.dead = dead;
+    Frame dropped = pending.getAndSet(frame);
+    if (dropped == null) {
+      SwingUtilities.invokeLater(this::showPending);
+    } else {
+      spare.set(dropped);
+    }
+  }
+
+  // Runs on the event dispatch thread
+  private void showPending() {
+    Frame next = pending.getAndSet(null);
+    if (next == null) {
+      return;
+    }
+    Frame last = shown;
+    shown = next;
+    if (last.size() != next.size()) {
+      fireTableDataChanged();
+    } else {
+      fireChanges(last, next);
+    }
+    spare.set(last);
+  }
+
+  private void fireChanges(Frame last, Frame next) {
+    int changed = 0;
+    int first = -1;
+    int end = -1;
+    for (int i = 0; i < next.size(); i++) {
+      int cells = (last.mood[i] != next.mood[i] ? 1 : 0)
+          + (last.state[i] != next.state[i] ? 1 : 0);
+      for (int n = 0; n < Need.COUNT; n++) {
+        cells += last.needs[n][i] != next.needs[n][i] ? 1 : 0;
+      }
+      if (cells > 0) {
+        changed += cells;
+        if (first < 0) {
+          first = i;
+        }
+        end = i;
+      }
+    }
+    if (changed == 0) {
+      return;
+    }
+    if (changed > CELL_EVENT_LIMIT) {
+      fireTableRowsUpdated(first, end);
+      return;
+    }
+    for (int i = first; i <= end; i++) {
+      for (int n = 0; n < Need.COUNT; n++) {
+        fireIfChanged(i, FIRST_NEED + n, last.needs[n][i] != next.needs[n][i]);
+      }
+      fireIfChanged(i, MOOD, last.mood[i] != next.mood[i]);
+      fireIfChanged(i, STATE, last.state[i] != next.state[i]);
+    }
+  }
+
+  private void fireIfChanged(int row, int column, boolean changed) {
+    if (changed) {
+      fireTableCellUpdated(row, column);
+    }
+  }
+
+  /**
+   * Returns the tick of the population shown.
+   *
+   * @return the number of ticks the shown population had run
+   */
+  public long getTick() {
+    return shown.tick;
+  }
+
+  /**
+   * Returns the number of dead pets in the population shown.
+   *
+   * @return the number of dead pets
+   */
+  public int getDeadCount() {
+    return shown.dead;
+  }
+
+  @Override
+  public int getRowCount() {
+    return shown.size();
+  }
+
+  @Override
+  public int getColumnCount() {
+    return COLUMN_NAMES.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMN_NAMES[column];
+  }
+
+  @Override
+  public Class<?> getColumnClass(int column) {
+    return COLUMN_CLASSES[column];
+  }
+
+  @Override
+  public Object getValueAt(int row, int column) {
+    Frame frame = shown;
+    if (column == PET) {
+      return row;
+    } else if (column >= FIRST_NEED && column < MOOD) {
+      return frame.needs[column - FIRST_NEED][row];
+    } else if (column == MOOD) {
+      return frame.mood[row];
+    } else if (column == STATE) {
+      return frame.state[row];
+    }
+    throw new IndexOutOfBoundsException("Invalid column: " + column);
+  }
+
+  private static String[] columnNames() {
+    String[] names = new String[STATE + 1];
+    names[PET] = "Pet";
+    for (Need need : Need.values()) {
+      names[FIRST_NEED + need.ordinal()] = need.label();
+    }
+    names[MOOD] = "Mood";
+    names[STATE] = "State";
+    return names;
+  }
+
+  private static Class<?>[] columnClasses() {
+    Class<?>[] classes = new Class<?>[STATE + 1];
+    Arrays.fill(classes, 0, MOOD, Integer.class);
+    classes[MOOD] = MoodEnum.class;
+    classes[STATE] = PetState.class;
+    return classes;
+  }
+}
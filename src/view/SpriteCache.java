@@ -0,0 +1,95 @@
+package view;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * Caches the pet sprites, decoded and scaled once per name and size.
+ * Sprites are stored as images compatible with the screen, so drawing them
+ * needs no conversion.
+ */
+class SpriteCache {
+  // Remembers sprites that could not be loaded, so that they are not looked up again
+  private static final BufferedImage MISSING = new BufferedImage(1, 1,
+      BufferedImage.TYPE_INT_ARGB);
+  private final Map<String, Image> decoded = new HashMap<>();
+  private final Map<String, BufferedImage> scaled = new HashMap<>();
+
+  /**
+   * Returns the sprite with the given name, scaled to a square of the given size.
+   *
+   * @param name   the name of the image, such as "happy"
+   * @param size   the width and height of the sprite
+   * @param config the graphics configuration of the component showing the sprite,
+   *               or null when there is none yet
+   * @return the sprite, or null if the image cannot be found
+   */
+  public BufferedImage get(String name, int size, GraphicsConfiguration config) {
+    String key = name.toLowerCase(Locale.ROOT);
+    BufferedImage sprite = scaled.computeIfAbsent(key + "@" + size,
+        k -> scale(decode(key), size, config));
+    return sprite == MISSING ? null : sprite;
+  }
+
+  /**
+   * Drops every scaled sprite, for example after the window was resized.
+   * Decoded images are kept, so the next sprites are only scaled again.
+   */
+  public void invalidate() {
+    scaled.clear();
+  }
+
+  private Image decode(String name) {
+    return decoded.computeIfAbsent(name, k -> {
+      String path = "/images/" + k + ".png";
+      try (InputStream stream = open(path)) {
+        if (stream == null) {
+          return MISSING;
+        }
+        Image image = ImageIO.read(stream);
+        return image == null ? MISSING : image;
+      } catch (IOException e) {
+        return MISSING;
+      }
+    });
+  }
+
+  private InputStream open(String path) throws IOException {
+    InputStream stream = getClass().getResourceAsStream(path);
+    if (stream == null) {
+      File file = new File(path);
+      if (file.exists()) {
+        stream = new FileInputStream(file);
+      }
+    }
+    return stream;
+  }
+
+  private static BufferedImage scale(Image image, int size, GraphicsConfiguration config) {
+    if (image == MISSING) {
+      return MISSING;
+    }
+    BufferedImage sprite = config != null
+        ? config.createCompatibleImage(size, size, Transparency.TRANSLUCENT)
+        : new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D graphics = sprite.createGraphics();
+    try {
+      // same smooth scaling as before, but done once per size
+      graphics.drawImage(image.getScaledInstance(size, size, Image.SCALE_SMOOTH), 0, 0, null);
+    } finally {
+      graphics.dispose();
+    }
+    return sprite;
+  }
+}
@@ -0,0 +1,91 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pet.Action;
+import pet.Pet;
+import pet.PetMetrics;
+
+/**
+ * Test class for the PetSimulation class.
+ */
+public class PetSimulationTest {
+  private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+  private final List<Throwable> reported = new CopyOnWriteArrayList<>();
+  private Thread.UncaughtExceptionHandler previousHandler;
+  private PetSimulation simulation;
+
+  /**
+   * Starts a simulation that records its messages, and catches what it reports.
+   */
+  @Before
+  public void setUp() {
+    previousHandler = Thread.getDefaultUncaughtExceptionHandler();
+    Thread.setDefaultUncaughtExceptionHandler((thread, e) -> reported.add(e));
+    simulation = new PetSimulation(new Pet(), "tick", (snapshot, message) -> {
+      if (message.equals("listener fails")) {
+        throw new IllegalStateException(message);
+      }
+      messages.add(message);
+    });
+  }
+
+  /**
+   * Stops the simulation and restores the default handler.
+   */
+  @After
+  public void tearDown() throws InterruptedException {
+    simulation.close();
+    simulation.awaitTermination(5, TimeUnit.SECONDS);
+    Thread.setDefaultUncaughtExceptionHandler(previousHandler);
+  }
+
+  @Test
+  public void testFailingCommandsDoNotStopTheSimulation() throws InterruptedException {
+    simulation.submit(pet -> {
+      throw new IllegalArgumentException("command fails");
+    });
+    simulation.submit(pet -> "listener fails");
+    simulation.submit(pet -> {
+      pet.interactWith(Action.PLAY);
+      return "played";
+    });
+    assertEquals("played", messages.poll(5, TimeUnit.SECONDS));
+    assertEquals(2, reported.size());
+    assertEquals("command fails", reported.get(0).getMessage());
+    assertEquals("listener fails", reported.get(1).getMessage());
+  }
+
+  @Test
+  public void testZeroTimeoutDoesNotWait() throws InterruptedException {
+    assertFalse(simulation.awaitTermination(0, TimeUnit.SECONDS));
+    assertFalse(simulation.awaitTermination(1, TimeUnit.MICROSECONDS));
+    simulation.close();
+    assertTrue(simulation.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testCountsOnlyTheTicksThePetLives() throws InterruptedException {
+    long lifetime = new Pet().ticksUntilDeath();
+    PetMetrics metrics = PetMetrics.enable();
+    try {
+      long before = metrics.getTicks();
+      simulation.advance(lifetime + 1000);
+      assertEquals("tick", messages.poll(5, TimeUnit.SECONDS));
+      assertTrue(simulation.getSnapshot().isDead());
+      assertEquals(lifetime, metrics.getTicks() - before);
+    } finally {
+      PetMetrics.disable();
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the TickScheduler class.
+ * The scheduler reads a fake clock, which the tests move forward by hand.
+ */
+public class TickSchedulerTest {
+  // One tick per millisecond at speed 1
+  private static final double TICKS_PER_SECOND = 1000;
+  private static final long MILLIS = 1_000_000;
+  private final AtomicLong now = new AtomicLong(42 * MILLIS);
+  private final BlockingQueue<Long> advances = new LinkedBlockingQueue<>();
+  private TickScheduler clock;
+
+  @Before
+  public void setUp() {
+    clock = new TickScheduler(TICKS_PER_SECOND, advances::add, now::get);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    clock.close();
+    clock.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  // Moves the fake clock forward and returns the ticks of the next advance
+  private long advanceBy(long nanos) throws InterruptedException {
+    now.addAndGet(nanos);
+    Long ticks = advances.poll(5, TimeUnit.SECONDS);
+    return ticks == null ? -1 : ticks;
+  }
+
+  @Test
+  public void testPausedClockDeliversNothing() throws InterruptedException {
+    now.addAndGet(100 * MILLIS);
+    assertNull(advances.poll(50, TimeUnit.MILLISECONDS));
+    assertEquals(0, clock.getTicks());
+  }
+
+  @Test
+  public void testCatchesUpAfterStallInOneCall() throws InterruptedException {
+    clock.resume();
+    assertEquals(3, advanceBy(3 * MILLIS));
+    // a stall of a whole second is delivered at once
+    assertEquals(1000, advanceBy(1000 * MILLIS));
+    // partial ticks are kept for later, since ticks are counted from the anchor
+    assertEquals(1, advanceBy(MILLIS + MILLIS / 2));
+    assertEquals(1, advanceBy(MILLIS / 2));
+    assertEquals(1005, clock.getTicks());
+    assertNull(advances.poll(50, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testSpeedChangeKeepsTicksAlreadyDue() throws InterruptedException {
+    clock.resume();
+    assertEquals(10, advanceBy(10 * MILLIS));
+    now.addAndGet(MILLIS / 2);
+    clock.setSpeed(4);
+    assertEquals(4.0, clock.getSpeed(), 0);
+    // the half tick before the change is dropped, then four ticks per millisecond
+    assertEquals(8, advanceBy(2 * MILLIS));
+    clock.setSpeed(0.5);
+    assertEquals(5, advanceBy(10 * MILLIS));
+    assertEquals(23, clock.getTicks());
+  }
+
+  @Test
+  public void testPausedTimeIsNotCaughtUp() throws InterruptedException {
+    clock.resume();
+    assertEquals(5, advanceBy(5 * MILLIS));
+    clock.pause();
+    assertFalse(clock.isRunning());
+    now.addAndGet(500 * MILLIS);
+    clock.setSpeed(2);
+    assertNull(advances.poll(50, TimeUnit.MILLISECONDS));
+    clock.resume();
+    assertEquals(2, advanceBy(MILLIS));
+    assertEquals(7, clock.getTicks());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSpeed() {
+    clock.setSpeed(0);
+  }
+
+  @Test
+  public void testClose() throws InterruptedException {
+    clock.resume();
+    assertEquals(1, advanceBy(MILLIS));
+    // a zero timeout returns at once instead of waiting forever
+    assertFalse(clock.awaitTermination(0, TimeUnit.SECONDS));
+    assertFalse(clock.awaitTermination(1, TimeUnit.MICROSECONDS));
+    clock.close();
+    assertTrue(clock.awaitTermination(5, TimeUnit.SECONDS));
+    assertFalse(clock.isRunning());
+    now.addAndGet(100 * MILLIS);
+    clock.resume();
+    assertNull(advances.poll(50, TimeUnit.MILLISECONDS));
+    assertEquals(1, clock.getTicks());
+  }
+}
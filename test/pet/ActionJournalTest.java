@@ -0,0 +1,153 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for the ActionJournal and JournaledPet classes.
+ */
+public class ActionJournalTest {
+  // Small segments, so that records cross several segment boundaries
+  private static final long SEGMENT_BYTES = 64 * ActionJournal.RECORD_BYTES;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+  private Path path;
+
+  @Before
+  public void setUp() throws IOException {
+    path = folder.getRoot().toPath().resolve("pets.journal");
+  }
+
+  private static void assertSamePet(Pet expected, Pet actual) {
+    assertEquals(expected.getHealth().toString(), actual.getHealth().toString());
+    assertEquals(expected.getMood(), actual.getMood());
+    assertEquals(expected.getState(), actual.getState());
+    assertEquals(expected.isHungryWarning(), actual.isHungryWarning());
+  }
+
+  @Test
+  public void testReplayRebuildsJournaledPets() throws IOException {
+    Random random = new Random(5);
+    Action[] actions = Action.values();
+    JournaledPet[] pets = new JournaledPet[8];
+    try (ActionJournal journal = ActionJournal.open(path, SyncPolicy.group(100, 10),
+        SEGMENT_BYTES)) {
+      for (int i = 0; i < pets.length; i++) {
+        pets[i] = new JournaledPet(new Pet(), journal, i);
+      }
+      for (int event = 0; event < 2000; event++) {
+        JournaledPet pet = pets[random.nextInt(pets.length)];
+        if (random.nextInt(3) == 0) {
+          pet.step();
+        } else if (random.nextInt(10) == 0) {
+          pet.advance(random.nextInt(5));
+        } else {
+          pet.interactWith(actions[random.nextInt(actions.length)]);
+        }
+      }
+      assertEquals(2000, journal.size());
+    }
+    Pet[] replayed = new Pet[pets.length];
+    for (int i = 0; i < replayed.length; i++) {
+      replayed[i] = new Pet();
+    }
+    assertEquals(2000, ActionJournal.replay(path, replayed));
+    for (int i = 0; i < pets.length; i++) {
+      assertSamePet(pets[i].getPet(), replayed[i]);
+    }
+  }
+
+  @Test
+  public void testReopenAppendsAfterExistingRecords() throws IOException {
+    try (ActionJournal journal = ActionJournal.open(path, SyncPolicy.EVERY_RECORD,
+        SEGMENT_BYTES)) {
+      for (int i = 0; i < 100; i++) {
+        journal.appendAction(i, 0, Action.FEED);
+      }
+    }
+    try (ActionJournal journal = ActionJournal.open(path, SyncPolicy.NONE)) {
+      assertEquals(100, journal.size());
+      journal.appendStep(100, ActionJournal.ALL_PETS);
+      assertEquals(101, journal.size());
+    }
+    List<String> events = new ArrayList<>();
+    ActionJournal.replay(path, new ActionJournal.RecordHandler() {
+      @Override
+      public void onAction(long tick, int petId, Action action) {
+        events.add(tick + ":" + petId + ":" + action);
+      }
+
+      @Override
+      public void onStep(long tick, int petId) {
+        events.add(tick + ":" + petId + ":STEP");
+      }
+    });
+    assertEquals(101, events.size());
+    assertEquals("0:0:FEED", events.get(0));
+    assertEquals("99:0:FEED", events.get(99));
+    assertEquals("100:-1:STEP", events.get(100));
+  }
+
+  @Test
+  public void testStepAllPets() throws IOException {
+    Pet[] pets = {new Pet(), new Pet()};
+    try (ActionJournal journal = ActionJournal.open(path, SyncPolicy.NONE)) {
+      journal.appendAction(0, 1, Action.PLAY);
+      journal.appendStep(3, ActionJournal.ALL_PETS);
+      assertEquals(2, journal.replay(new ActionJournal.PetReplayer(pets)));
+    }
+    Pet first = new Pet();
+    first.advance(3);
+    Pet second = new Pet();
+    second.interactWith(Action.PLAY);
+    second.advance(3);
+    assertSamePet(first, pets[0]);
+    assertSamePet(second, pets[1]);
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsOtherFiles() throws IOException {
+    Files.write(path, new byte[64]);
+    ActionJournal.open(path, SyncPolicy.NONE).close();
+  }
+
+  @Test
+  public void testRejectsCorruptRecordKind() throws IOException {
+    try (ActionJournal journal = ActionJournal.open(path, SyncPolicy.NONE, SEGMENT_BYTES)) {
+      for (int i = 0; i < 10; i++) {
+        journal.appendAction(i, 0, Action.FEED);
+      }
+    }
+    // the kind byte of the fifth record, after the header
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {42}), 5 * ActionJournal.RECORD_BYTES + 12);
+    }
+    try {
+      ActionJournal.replay(path, new Pet[] {new Pet()});
+      fail("Expected a corrupt journal to be rejected");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("record 5"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSyncPolicy() {
+    SyncPolicy.group(-1, 0);
+  }
+}
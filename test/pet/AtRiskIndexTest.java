@@ -0,0 +1,184 @@
+package pet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the AtRiskIndex class.
+ * Checks the answers of the index against the predictions of every pet.
+ */
+public class AtRiskIndexTest {
+  private static final int SIZE = 2000;
+  private PetPopulation population;
+  private AtRiskIndex index;
+
+  /**
+   * Sets up a tracked population of pets with random needs, moods and states.
+   */
+  @Before
+  public void setUp() {
+    Random random = new Random(5);
+    population = new PetPopulation(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      population.setHealth(i, new HealthStatus(random.nextInt(101), random.nextInt(101),
+          random.nextInt(101), random.nextInt(101)));
+      population.setMood(i, random.nextBoolean() ? MoodEnum.HAPPY : MoodEnum.SAD);
+      if (random.nextInt(4) == 0) {
+        population.setState(i, PetState.Sleeping);
+      }
+    }
+    index = new AtRiskIndex(SIZE);
+    population.trackAtRisk(index);
+  }
+
+  private long[] predictions() {
+    long[] ticks = new long[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      ticks[i] = population.ticksUntilDeath(i);
+    }
+    return ticks;
+  }
+
+  private void assertMatchesPredictions() {
+    long[] ticks = predictions();
+    int alive = 0;
+    for (int i = 0; i < SIZE; i++) {
+      boolean atRisk = ticks[i] != 0 && ticks[i] != Pet.NEVER;
+      assertEquals(atRisk, index.contains(i));
+      if (atRisk) {
+        assertEquals(ticks[i], index.ticksUntilDeath(i));
+        alive++;
+      }
+    }
+    assertEquals(alive, index.size());
+
+    int[] within = index.dyingWithin(20);
+    Arrays.sort(within);
+    int[] expected = IntStream.range(0, SIZE)
+        .filter(i -> ticks[i] != 0 && ticks[i] <= 20).toArray();
+    assertArrayEquals(expected, within);
+
+    int[] top = index.topAtRisk(50);
+    long[] sorted = Arrays.stream(ticks).filter(t -> t != 0 && t != Pet.NEVER).sorted()
+        .limit(50).toArray();
+    assertEquals(sorted.length, top.length);
+    for (int n = 0; n < top.length; n++) {
+      assertEquals(sorted[n], ticks[top[n]]);
+    }
+  }
+
+  @Test
+  public void testMatchesPredictionsWhileStepping() {
+    assertMatchesPredictions();
+    for (int tick = 0; tick < 30; tick++) {
+      population.stepAll();
+      assertMatchesPredictions();
+    }
+  }
+
+  @Test
+  public void testMatchesPredictionsAfterActions() {
+    Random random = new Random(6);
+    for (int tick = 0; tick < 10; tick++) {
+      int[] petIds = new int[SIZE / 2];
+      byte[] actions = new byte[petIds.length];
+      for (int k = 0; k < petIds.length; k++) {
+        petIds[k] = random.nextInt(SIZE);
+        actions[k] = (byte) random.nextInt(Action.values().length);
+      }
+      population.applyActions(petIds, actions);
+      assertMatchesPredictions();
+      population.stepAll();
+    }
+  }
+
+  @Test
+  public void testParallelTicksAdvanceTheIndex() {
+    try (PopulationTicker ticker = new PopulationTicker(2, 128)) {
+      for (int tick = 0; tick < 10; tick++) {
+        ticker.tick(population);
+      }
+    }
+    assertEquals(10, index.getTick());
+    assertMatchesPredictions();
+  }
+
+  @Test
+  public void testTrackedPet() {
+    AtRiskIndex pets = new AtRiskIndex(1);
+    Pet pet = new Pet();
+    pet.setId(0);
+    pet.trackIn(pets);
+    long ticks = pet.ticksUntilDeath();
+    assertEquals(ticks, pets.ticksUntilDeath(0));
+    pet.step();
+    pets.advance(1);
+    assertEquals(ticks - 1, pets.ticksUntilDeath(0));
+    pet.interactWith(Action.FEED);
+    assertEquals(pet.ticksUntilDeath(), pets.ticksUntilDeath(0));
+    // direct changes of mood and state are indexed at once
+    pet.setMood(MoodEnum.SAD);
+    assertEquals(pet.ticksUntilDeath(), pets.ticksUntilDeath(0));
+    pet.setState(PetState.Sleeping);
+    assertEquals(pet.ticksUntilDeath(), pets.ticksUntilDeath(0));
+    pet.setState(PetState.Dead);
+    assertFalse(pets.contains(0));
+  }
+
+  @Test(timeout = 5000)
+  public void testPetsThatNeverDieAreNotIndexed() {
+    // hunger rises while happy and falls while sad, so these pets swing between moods forever
+    Properties properties = new Properties();
+    properties.setProperty("name", "seesaw");
+    properties.setProperty("decay.happy", "5,0,0,0");
+    properties.setProperty("decay.sad", "-5,0,0,0");
+    SpeciesProfile seesaw = SpeciesProfile.fromProperties(properties);
+    PetPopulation pets = new PetPopulation(2, SpeciesProfile.DEFAULT, seesaw);
+    pets.setSpecies(1, seesaw);
+    pets.setHealth(1, new HealthStatus(45, 100, 0, 100));
+    AtRiskIndex tracked = new AtRiskIndex(2);
+    pets.trackAtRisk(tracked);
+    assertTrue(tracked.contains(0));
+    assertFalse(tracked.contains(1));
+    // direct changes and actions reindex the pet without hanging
+    pets.setMood(1, MoodEnum.SAD);
+    pets.setState(1, PetState.Sleeping);
+    pets.setState(1, PetState.Active);
+    pets.applyActions(new int[] {1}, new byte[] {(byte) Action.PLAY.ordinal()});
+    for (int tick = 0; tick < 100; tick++) {
+      pets.stepAll();
+    }
+    assertFalse(tracked.contains(1));
+    assertEquals(PetState.Active, pets.getState(1));
+  }
+
+  @Test
+  public void testDeadPetsAreDropped() {
+    AtRiskIndex pets = new AtRiskIndex(3);
+    pets.update(0, 5);
+    pets.update(1, 2);
+    pets.update(2, Pet.NEVER);
+    assertEquals(2, pets.size());
+    assertArrayEquals(new int[] {1, 0}, pets.topAtRisk(5));
+    pets.advance(2);
+    assertFalse(pets.contains(1));
+    assertTrue(pets.contains(0));
+    assertEquals(3, pets.ticksUntilDeath(0));
+    assertArrayEquals(new int[] {0}, pets.dyingWithin(3));
+    assertEquals(0, pets.dyingWithin(2).length);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testRejectsUnknownPets() {
+    index.update(SIZE, 1);
+  }
+}
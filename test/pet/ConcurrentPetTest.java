@@ -0,0 +1,165 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Test class for the ConcurrentPet class.
+ */
+public class ConcurrentPetTest {
+  private static final int THREADS = 8;
+
+  private static void assertSamePet(Pet expected, ConcurrentPet actual) {
+    assertEquals(expected.getHealth().toString(), actual.getHealth().toString());
+    assertEquals(expected.getMood(), actual.getMood());
+    assertEquals(expected.getState(), actual.getState());
+    assertEquals(expected.isHungryWarning(), actual.isHungryWarning());
+    assertEquals(expected.isJustWokeUp(), actual.isJustWokeUp());
+  }
+
+  // Runs the task on several threads at once and waits for all of them
+  private static void runConcurrently(Runnable task) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        task.run();
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+
+  @Test
+  public void testBehavesLikePet() {
+    Random random = new Random(3);
+    Action[] actions = Action.values();
+    Pet pet = new Pet();
+    pet.setHealth(new HealthStatus(30, 60, 30, 60));
+    ConcurrentPet concurrent = new ConcurrentPet(pet);
+    for (int event = 0; event < 500 && !pet.isDead(); event++) {
+      if (random.nextBoolean()) {
+        pet.step();
+        concurrent.step();
+      } else {
+        Action action = actions[random.nextInt(actions.length)];
+        pet.interactWith(action);
+        concurrent.interactWith(action);
+      }
+      assertSamePet(pet, concurrent);
+      assertEquals(pet.ticksUntilDeath(), concurrent.ticksUntilDeath());
+      assertEquals(pet.ticksUntilSad(), concurrent.ticksUntilSad());
+    }
+  }
+
+  @Test
+  public void testConcurrentStepsAreNotLost() throws InterruptedException {
+    // Tests that steps from many threads add up to the same number of sequential steps
+    for (int trial = 0; trial < 50; trial++) {
+      Pet start = new Pet();
+      start.setHealth(new HealthStatus(0, 100, 0, 100));
+      start.setState(PetState.Sleeping);
+      ConcurrentPet concurrent = new ConcurrentPet(start);
+      runConcurrently(() -> {
+        for (int i = 0; i < 2; i++) {
+          concurrent.step();
+        }
+      });
+      start.advance(2 * THREADS);
+      assertSamePet(start, concurrent);
+    }
+  }
+
+  @Test
+  public void testReadsAreConsistent() throws InterruptedException {
+    // Tests that readers never see a pet that is half updated
+    ConcurrentPet concurrent = new ConcurrentPet();
+    AtomicBoolean torn = new AtomicBoolean();
+    runConcurrently(() -> {
+      for (int i = 0; i < 2000; i++) {
+        if (i % 2 == 0) {
+          concurrent.interactWith(Action.SLEEP);
+        } else {
+          PetSnapshot snapshot = concurrent.snapshot();
+          if (snapshot.isSleeping() && snapshot.justWokeUp()) {
+            torn.set(true);
+          }
+        }
+      }
+    });
+    assertFalse(torn.get());
+  }
+
+  @Test
+  public void testTransitionsAreReportedOnce() throws InterruptedException {
+    // Tests that retried attempts report nothing, so contention does not inflate the counts
+    int toggles = 2000;
+    PetEventBus bus = new PetEventBus(1 << 15);
+    AtomicInteger published = new AtomicInteger();
+    bus.subscribe("test", (type, petId, value, endOfBatch) -> {
+      if (type == PetEventType.SLEEP_TOGGLED && petId == 7) {
+        published.incrementAndGet();
+      }
+    });
+    ConcurrentPet concurrent = new ConcurrentPet();
+    concurrent.publishTo(bus, 7);
+    PetMetrics metrics = PetMetrics.enable();
+    try {
+      Map<String, Long> before = metrics.getCounters();
+      runConcurrently(() -> {
+        for (int i = 0; i < toggles; i++) {
+          concurrent.interactWith(Action.SLEEP);
+        }
+      });
+      long counted = metrics.getCounters().get("sleepToggles") - before.get("sleepToggles");
+      assertEquals(THREADS * toggles, counted);
+    } finally {
+      PetMetrics.disable();
+    }
+    bus.close();
+    assertTrue(bus.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(THREADS * toggles, published.get());
+    assertEquals(0, bus.getDropped());
+  }
+
+  @Test
+  public void testPublishesDeath() throws InterruptedException {
+    PetEventBus bus = new PetEventBus(64);
+    List<String> received = new CopyOnWriteArrayList<>();
+    bus.subscribe("test", (type, petId, value, endOfBatch) ->
+        received.add(type + ":" + petId));
+    Pet start = new Pet();
+    start.setHealth(new HealthStatus(30, 60, 30, 60));
+    ConcurrentPet concurrent = new ConcurrentPet(start);
+    concurrent.publishTo(bus, 3);
+    concurrent.advance(1000);
+    concurrent.advance(1000);
+    bus.close();
+    assertTrue(bus.awaitTermination(5, TimeUnit.SECONDS));
+    assertTrue(concurrent.isDead());
+    assertTrue(received.contains("HUNGRY_WARNING:3"));
+    assertEquals("DIED:3", received.get(received.size() - 1));
+    assertEquals(1, received.stream().filter(event -> event.startsWith("DIED")).count());
+  }
+}
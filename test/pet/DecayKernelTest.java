@@ -0,0 +1,108 @@
+package pet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the DecayKernel implementations.
+ * Both kernels must match PetUtils.applyDecay and the sleep step of a pet.
+ */
+public class DecayKernelTest {
+  // Not a multiple of any vector length, so that the scalar tail is covered too
+  private static final int SIZE = 1003;
+  private static final Need[] NEEDS = Need.values();
+  // One column per need, in the order of Need
+  private int[][] needs;
+  private byte[] mood;
+  private byte[] state;
+
+  /**
+   * Sets up columns with random needs, moods and states, including needs
+   * close to the limits so that clamping is exercised.
+   */
+  @Before
+  public void setUp() {
+    Random random = new Random(3);
+    needs = new int[Need.COUNT][SIZE];
+    mood = new byte[SIZE];
+    state = new byte[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      for (Need need : NEEDS) {
+        NeedLimits limits = need.limits();
+        needs[need.ordinal()][i] = limits.min() + random.nextInt(limits.max() - limits.min() + 1);
+      }
+      mood[i] = (byte) random.nextInt(2);
+      state[i] = (byte) random.nextInt(3);
+    }
+  }
+
+  private static DecayKernel scalar() {
+    return new ScalarDecayKernel(HappyMood.DECAY, SadMood.DECAY, Pet.SLEEP_DECAY);
+  }
+
+  private static int[][] copy(int[][] columns) {
+    int[][] copy = new int[columns.length][];
+    for (int n = 0; n < columns.length; n++) {
+      copy[n] = columns[n].clone();
+    }
+    return copy;
+  }
+
+  private void assertMatchesReference(DecayKernel kernel, int from, int to) {
+    int[][] before = copy(needs);
+    kernel.apply(needs, mood, state, from, to);
+    for (int i = 0; i < SIZE; i++) {
+      int[] values = new int[Need.COUNT];
+      for (int n = 0; n < Need.COUNT; n++) {
+        values[n] = before[n][i];
+      }
+      HealthStatus expected = new HealthStatus(values);
+      if (i >= from && i < to && state[i] != PetPopulation.DEAD) {
+        MoodDecayProfile profile = state[i] == PetPopulation.SLEEPING ? Pet.SLEEP_DECAY
+            : mood[i] == PetPopulation.HAPPY ? HappyMood.DECAY : SadMood.DECAY;
+        expected = PetUtils.applyDecay(expected, profile);
+      }
+      for (Need need : NEEDS) {
+        assertEquals(need + " at " + i, expected.get(need), needs[need.ordinal()][i]);
+      }
+    }
+  }
+
+  @Test
+  public void testScalarKernelMatchesApplyDecay() {
+    assertMatchesReference(scalar(), 0, SIZE);
+  }
+
+  @Test
+  public void testScalarKernelOnlyTouchesRange() {
+    assertMatchesReference(scalar(), 10, 500);
+  }
+
+  @Test
+  public void testVectorKernelMatchesScalarKernel() {
+    assumeTrue(DecayKernel.isVectorAvailable());
+    DecayKernel vector = DecayKernel.create(HappyMood.DECAY, SadMood.DECAY, Pet.SLEEP_DECAY);
+    assertEquals("VectorDecayKernel", vector.getClass().getSimpleName());
+    assertMatchesReference(vector, 0, SIZE);
+    assertMatchesReference(vector, 7, 900);
+  }
+
+  @Test
+  public void testVectorKernelRepeatedSteps() {
+    assumeTrue(DecayKernel.isVectorAvailable());
+    DecayKernel vector = DecayKernel.create(HappyMood.DECAY, SadMood.DECAY, Pet.SLEEP_DECAY);
+    int[][] copy = copy(needs);
+    for (int step = 0; step < 30; step++) {
+      vector.apply(needs, mood, state, 0, SIZE);
+      scalar().apply(copy, mood, state, 0, SIZE);
+    }
+    for (Need need : NEEDS) {
+      assertArrayEquals(need.name(), copy[need.ordinal()], needs[need.ordinal()]);
+    }
+  }
+}
@@ -24,6 +24,21 @@ public class HealthStatusTest {
     health = null;
   }
 
+  @Test
+  public void testGetByNeed() {
+    HealthStatus status = new HealthStatus(10, 20, 30, 40);
+    int[] expected = {10, 20, 30, 40};
+    for (Need need : Need.values()) {
+      assertEquals(need.name(), expected[need.ordinal()], status.get(need));
+    }
+    assertEquals(new HealthStatus(10, 20, 30, 40), status);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongNeedCount() {
+    new HealthStatus(10, 20, 30);
+  }
+
   // Test methods for getters
   @Test
   public void getHunger() {
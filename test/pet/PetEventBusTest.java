@@ -0,0 +1,124 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the PetEventBus class.
+ */
+public class PetEventBusTest {
+  private static final int CAPACITY = 1024;
+  private PetEventBus bus;
+
+  @Before
+  public void setUp() {
+    bus = new PetEventBus(CAPACITY);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    bus.close();
+    bus.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testPetPublishesTransitions() throws InterruptedException {
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    bus.subscribe("test", (type, petId, value, endOfBatch) ->
+        received.add(type + ":" + petId + ":" + value));
+    Pet pet = new Pet();
+    pet.setHealth(new HealthStatus(30, 60, 30, 60));
+    pet.publishTo(bus, 7);
+    pet.interactWith(Action.SLEEP);
+    pet.interactWith(Action.SLEEP);
+    while (!pet.isDead()) {
+      pet.step();
+    }
+    bus.close();
+    assertTrue(bus.awaitTermination(5, TimeUnit.SECONDS));
+
+    assertEquals("SLEEP_TOGGLED:7:" + PetState.Sleeping.ordinal(), received.get(0));
+    assertEquals("SLEEP_TOGGLED:7:" + PetState.Active.ordinal(), received.get(1));
+    assertTrue(received.contains("MOOD_CHANGED:7:" + MoodEnum.SAD.ordinal()));
+    assertTrue(received.contains("HUNGRY_WARNING:7:" + Pet.HUNGER_STREAK_LIMIT));
+    assertEquals("DIED:7:0", received.get(received.size() - 1));
+    assertEquals(0, bus.getDropped());
+  }
+
+  @Test
+  public void testEveryEventIsHandledOnceInOrder() throws InterruptedException {
+    int producers = 4;
+    int perProducer = 100_000;
+    AtomicLong handled = new AtomicLong();
+    AtomicBoolean outOfOrder = new AtomicBoolean();
+    int[] lastValue = new int[producers];
+    bus.subscribe("counter", (type, petId, value, endOfBatch) -> {
+      if (value <= lastValue[petId]) {
+        outOfOrder.set(true);
+      }
+      lastValue[petId] = value;
+      handled.incrementAndGet();
+    });
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      int petId = p;
+      Thread thread = new Thread(() -> {
+        for (int value = 1; value <= perProducer; value++) {
+          bus.publish(PetEventType.MOOD_CHANGED, petId, value);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    bus.close();
+    assertTrue(bus.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals((long) producers * perProducer, bus.getPublished());
+    assertEquals(bus.getPublished() - bus.getDropped(), handled.get());
+    assertFalse(outOfOrder.get());
+  }
+
+  @Test
+  public void testDropsInsteadOfBlocking() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch stuck = new CountDownLatch(1);
+    bus.subscribe("slow", (type, petId, value, endOfBatch) -> {
+      stuck.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertTrue(bus.publish(PetEventType.DIED, 0, 0));
+    stuck.await();
+    int accepted = 1;
+    for (int i = 0; i < 2 * CAPACITY; i++) {
+      if (bus.publish(PetEventType.DIED, i, 0)) {
+        accepted++;
+      }
+    }
+    assertEquals(CAPACITY, accepted);
+    assertEquals(CAPACITY + 1, bus.getDropped());
+    release.countDown();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCapacityMustBePowerOfTwo() {
+    new PetEventBus(1000);
+  }
+}
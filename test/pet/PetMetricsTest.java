@@ -0,0 +1,100 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the PetMetrics and LatencyHistogram classes.
+ */
+public class PetMetricsTest {
+  private PetMetrics metrics;
+  private Map<String, Long> before;
+
+  @Before
+  public void setUp() {
+    metrics = PetMetrics.enable();
+    before = metrics.getCounters();
+  }
+
+  @After
+  public void tearDown() {
+    PetMetrics.disable();
+  }
+
+  // How much a counter grew since the test started
+  private long delta(String counter) {
+    return metrics.getCounters().get(counter) - before.get(counter);
+  }
+
+  @Test
+  public void testBucketsCoverEveryValue() {
+    for (long value : new long[] {0, 1, 7, 8, 9, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE}) {
+      int bucket = LatencyHistogram.bucketOf(value);
+      assertTrue(LatencyHistogram.lowerBound(bucket) <= value);
+      if (value < Long.MAX_VALUE) {
+        assertTrue(value < LatencyHistogram.lowerBound(bucket + 1));
+      }
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 1000; value++) {
+      histogram.record(value * 1000);
+    }
+    assertEquals(1000, histogram.getCount());
+    assertEquals(500_500, histogram.getMean(), 1e-6);
+    assertEquals(1_000_000, histogram.getMax());
+    long median = histogram.getPercentile(50);
+    assertTrue(median >= 500_000 && median <= 500_000 * 1.125);
+    assertEquals(1_000_000, histogram.getPercentile(100));
+  }
+
+  @Test
+  public void testPetCountsTransitions() {
+    Pet pet = new Pet();
+    pet.setHealth(new HealthStatus(30, 60, 30, 60));
+    pet.interactWith(Action.SLEEP);
+    pet.interactWith(Action.SLEEP);
+    while (!pet.isDead()) {
+      pet.step();
+    }
+    assertEquals(2, delta("sleepToggles"));
+    assertEquals(1, delta("deaths"));
+    assertTrue(delta("moodChanges") >= 1);
+  }
+
+  @Test
+  public void testPopulationCountsTicksAndActions() {
+    PetPopulation population = new PetPopulation(100);
+    population.setState(99, PetState.Dead);
+    population.applyActions(new int[] {0, 1, 2}, new byte[] {0, 0, 3});
+    population.stepAll();
+    Pet dead = new Pet();
+    dead.setState(PetState.Dead);
+    try (PopulationTicker ticker = new PopulationTicker(1, 10)) {
+      ticker.tick(new Pet[] {new Pet(), new Pet(), dead});
+    }
+    // pets advanced directly are not counted, only by the drivers
+    new Pet().advance(50);
+    assertEquals(101, delta("ticks"));
+    assertEquals(2, delta("interactions.FEED"));
+    assertEquals(1, delta("interactions.SLEEP"));
+    assertEquals(1, delta("sleepToggles"));
+  }
+
+  @Test
+  public void testEnableReturnsSameMetrics() {
+    assertSame(metrics, PetMetrics.enable());
+    PetMetrics.disable();
+    assertNull(PetMetrics.active());
+  }
+}
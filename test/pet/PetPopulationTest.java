@@ -0,0 +1,127 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the PetPopulation class.
+ * Checks that stepping the population matches stepping individual pets.
+ */
+public class PetPopulationTest {
+  private static final int SIZE = 500;
+  private Pet[] pets;
+  private PetPopulation population;
+
+  /**
+   * Sets up a population of pets in random but valid states,
+   * along with matching Pet objects.
+   */
+  @Before
+  public void setUp() {
+    Random random = new Random(42);
+    pets = new Pet[SIZE];
+    population = new PetPopulation(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      Pet pet = new Pet();
+      pet.setHealth(new HealthStatus(random.nextInt(101), random.nextInt(101),
+          random.nextInt(101), random.nextInt(101)));
+      pet.setMood(random.nextBoolean() ? MoodEnum.HAPPY : MoodEnum.SAD);
+      if (random.nextInt(4) == 0) {
+        pet.setState(PetState.Sleeping);
+      }
+      pets[i] = pet;
+      population.copyFrom(i, pet);
+    }
+  }
+
+  private void assertSameAsPets() {
+    for (int i = 0; i < SIZE; i++) {
+      Pet pet = pets[i];
+      assertEquals(pet.getHunger(), population.getHunger(i));
+      assertEquals(pet.getHygiene(), population.getHygiene(i));
+      assertEquals(pet.getSocial(), population.getSocial(i));
+      assertEquals(pet.getSleep(), population.getSleep(i));
+      assertEquals(pet.getMood(), population.getMood(i));
+      assertEquals(pet.getState(), population.getState(i));
+      assertEquals(pet.isHungryWarning(), population.isHungryWarning(i));
+    }
+  }
+
+  @Test
+  public void testNewPopulationMatchesNewPet() {
+    PetPopulation fresh = new PetPopulation(3);
+    Pet pet = new Pet();
+    for (int i = 0; i < fresh.size(); i++) {
+      assertEquals(pet.getHunger(), fresh.getHunger(i));
+      assertEquals(pet.getHygiene(), fresh.getHygiene(i));
+      assertEquals(pet.getSocial(), fresh.getSocial(i));
+      assertEquals(pet.getSleep(), fresh.getSleep(i));
+      assertEquals(pet.getMood(), fresh.getMood(i));
+      assertEquals(pet.getState(), fresh.getState(i));
+    }
+  }
+
+  @Test
+  public void testStepAllMatchesPetStep() {
+    for (int tick = 0; tick < 30; tick++) {
+      for (Pet pet : pets) {
+        pet.step();
+      }
+      population.stepAll();
+      assertSameAsPets();
+    }
+  }
+
+  @Test
+  public void testStepAllKillsNeglectedPets() {
+    for (int tick = 0; tick < 40; tick++) {
+      population.stepAll();
+    }
+    for (int i = 0; i < SIZE; i++) {
+      assertTrue(population.isDead(i));
+    }
+  }
+
+  @Test
+  public void testApplyActionsMatchesInteractWith() {
+    Random random = new Random(7);
+    Action[] actions = Action.values();
+    for (int round = 0; round < 20; round++) {
+      // several actions per pet, so that order within a pet matters
+      int[] ids = new int[SIZE * 3];
+      byte[] ordinals = new byte[ids.length];
+      long expected = 0;
+      for (int k = 0; k < ids.length; k++) {
+        ids[k] = random.nextInt(SIZE);
+        ordinals[k] = (byte) random.nextInt(actions.length);
+        Pet pet = pets[ids[k]];
+        Action action = actions[ordinals[k]];
+        if (!pet.isDead() && (action == Action.SLEEP || !pet.isSleeping())) {
+          expected++;
+        }
+        pet.interactWith(action);
+      }
+      assertEquals(expected, population.applyActions(ids, ordinals));
+      assertSameAsPets();
+      for (int i = 0; i < SIZE; i++) {
+        assertEquals(pets[i].isJustWokeUp(), population.isJustWokeUp(i));
+        pets[i].step();
+      }
+      population.stepAll();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testApplyActionsWithMismatchedColumns() {
+    population.applyActions(new int[2], new byte[1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSize() {
+    new PetPopulation(-1);
+  }
+}
@@ -0,0 +1,90 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for the flight recorder events of the simulation.
+ */
+public class PetRecordingTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private List<RecordedEvent> record(Runnable simulation) throws IOException {
+    Path path = folder.getRoot().toPath().resolve("pets.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("pet.Tick");
+      recording.enable("pet.Interaction");
+      recording.enable("pet.MoodChange");
+      recording.enable("pet.Death");
+      recording.start();
+      simulation.run();
+      recording.stop();
+      recording.dump(path);
+    }
+    return RecordingFile.readAllEvents(path);
+  }
+
+  private static RecordedEvent find(List<RecordedEvent> events, String name) {
+    return events.stream().filter(event -> event.getEventType().getName().equals(name))
+        .findFirst().orElseThrow(() -> new AssertionError("No " + name + " event"));
+  }
+
+  @Test
+  public void testInteractionEvent() throws IOException {
+    Pet pet = new Pet();
+    pet.setId(7);
+    List<RecordedEvent> events = record(() -> pet.interactWith(Action.SLEEP));
+    RecordedEvent event = find(events, "pet.Interaction");
+    assertEquals(7, event.getInt("petId"));
+    assertEquals("SLEEP", event.getString("action"));
+    assertEquals("Active", event.getString("oldState"));
+    assertEquals("Sleeping", event.getString("newState"));
+  }
+
+  @Test
+  public void testMoodChangeAndDeathEvents() throws IOException {
+    Pet pet = new Pet();
+    pet.setId(3);
+    List<RecordedEvent> events = record(() -> {
+      pet.setMood(MoodEnum.SAD);
+      pet.setState(PetState.Dead);
+    });
+    RecordedEvent mood = find(events, "pet.MoodChange");
+    assertEquals(3, mood.getInt("petId"));
+    assertEquals("HAPPY", mood.getString("oldMood"));
+    assertEquals("SAD", mood.getString("newMood"));
+    RecordedEvent death = find(events, "pet.Death");
+    assertEquals(3, death.getInt("petId"));
+    assertEquals("Active", death.getString("oldState"));
+    assertEquals(pet.getHealth().describe(), death.getString("needs"));
+  }
+
+  @Test
+  public void testTickEvents() throws IOException {
+    Pet pet = new Pet();
+    PetPopulation population = new PetPopulation(100);
+    List<RecordedEvent> events = record(() -> {
+      pet.advance(50);
+      try (PopulationTicker ticker = new PopulationTicker(1, 1000)) {
+        ticker.tick(population);
+      }
+    });
+    long single = events.stream().filter(event -> event.getEventType().getName()
+        .equals("pet.Tick") && event.getInt("pets") == 1).mapToLong(e -> e.getLong("ticks"))
+        .sum();
+    assertEquals(50, single);
+    assertTrue(events.stream().anyMatch(event -> event.getEventType().getName()
+        .equals("pet.Tick") && event.getInt("pets") == 100));
+  }
+}
@@ -2,8 +2,11 @@ package pet;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+import java.util.function.Predicate;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -52,6 +55,22 @@ public class PetTest {
     assertEquals(MoodEnum.HAPPY, pet.getMood());
   }
 
+  @Test
+  public void testNeedRegistry() {
+    pet = new Pet();
+    for (Need need : Need.values()) {
+      assertEquals(need, Need.of(need.boostedBy()));
+      assertEquals(need.best(need.limits()), pet.getNeed(need));
+      assertEquals(need.limits(), pet.getLimits(need));
+    }
+    for (Need need : Need.values()) {
+      // an action moves its need away from the deadly end
+      pet.setHealth(new HealthStatus(50, 50, 50, 50));
+      pet.interactWith(need.boostedBy());
+      int moved = pet.getNeed(need) - 50;
+      assertTrue(need.name(), need.rising() ? moved < 0 : moved > 0);
+    }
+  }
 
   @Test
   public void testMoodChangesToSadAfterDecay() {
@@ -416,4 +435,150 @@ public class PetTest {
     assertTrue(pet.isHungryWarning());
   }
 
-}
\ No newline at end of file
+  // Creates identical pets in a random state
+  private static Pet[] randomPets(Random random, int count) {
+    Pet[] pets = new Pet[count];
+    for (int i = 0; i < count; i++) {
+      pets[i] = new Pet();
+    }
+    HealthStatus health = new HealthStatus(random.nextInt(101), random.nextInt(101),
+        random.nextInt(101), random.nextInt(101));
+    MoodEnum mood = random.nextBoolean() ? MoodEnum.HAPPY : MoodEnum.SAD;
+    int interactions = random.nextInt(4);
+    boolean sleeping = random.nextInt(3) == 0;
+    for (Pet p : pets) {
+      p.setHealth(health);
+      p.setMood(mood);
+      for (int i = 0; i < interactions; i++) {
+        p.interactWith(Action.CLEAN);
+      }
+      if (sleeping) {
+        p.setState(PetState.Sleeping);
+      }
+    }
+    return pets;
+  }
+
+  @Test
+  public void testAdvanceMatchesRepeatedSteps() {
+    Random random = new Random(11);
+    for (int trial = 0; trial < 2000; trial++) {
+      Pet[] pair = randomPets(random, 2);
+      int ticks = random.nextInt(40);
+      pair[0].advance(ticks);
+      for (int i = 0; i < ticks; i++) {
+        pair[1].step();
+      }
+      assertEquals(pair[1].getHealth().toString(), pair[0].getHealth().toString());
+      assertEquals(pair[1].getMood(), pair[0].getMood());
+      assertEquals(pair[1].getState(), pair[0].getState());
+      assertEquals(pair[1].isHungryWarning(), pair[0].isHungryWarning());
+    }
+  }
+
+  @Test
+  public void testAdvanceWithManyTicks() {
+    // Tests that the pet dies from neglect and then stops changing
+    pet.advance(1_000_000_000L);
+    Pet stepped = new Pet();
+    stepped.setHealth(new HealthStatus(30, 60, 30, 60));
+    for (int i = 0; i < 100; i++) {
+      stepped.step();
+    }
+    assertTrue(pet.isDead());
+    assertEquals(stepped.getHealth().toString(), pet.getHealth().toString());
+  }
+
+  @Test
+  public void testAdvanceZeroTicks() {
+    pet.advance(0);
+    assertEquals(initialHunger, pet.getHunger());
+    assertEquals(initialMood, pet.getMood());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAdvanceNegativeTicks() {
+    pet.advance(-1);
+  }
+
+  // Steps a pet until the predicate holds, returning Pet.NEVER if it dies first
+  private static long stepsUntil(Pet pet, Predicate<Pet> predicate) {
+    for (long steps = 0; steps < 1000; steps++) {
+      if (predicate.test(pet)) {
+        return steps;
+      }
+      if (pet.isDead()) {
+        return Pet.NEVER;
+      }
+      pet.step();
+    }
+    return Pet.NEVER;
+  }
+
+  @Test
+  public void testPredictionsMatchSteppedPet() {
+    Random random = new Random(12);
+    for (int trial = 0; trial < 2000; trial++) {
+      Pet[] pets = randomPets(random, 3);
+      long untilDeath = pets[0].ticksUntilDeath();
+      long untilSad = pets[0].ticksUntilSad();
+      assertEquals(stepsUntil(pets[1], Pet::isDead), untilDeath);
+      assertEquals(stepsUntil(pets[2], p -> p.getMood() == MoodEnum.SAD), untilSad);
+    }
+  }
+
+  @Test
+  public void testPredictionsStayValidWhileStepping() {
+    long untilDeath = pet.ticksUntilDeath();
+    long untilSad = pet.ticksUntilSad();
+    pet.step();
+    assertEquals(untilDeath - 1, pet.ticksUntilDeath());
+    assertEquals(Math.max(0, untilSad - 1), pet.ticksUntilSad());
+    pet.advance(untilDeath);
+    assertTrue(pet.isDead());
+    assertEquals(0, pet.ticksUntilDeath());
+  }
+
+  @Test
+  public void testPredictionsAfterInteraction() {
+    // Tests that cleaning a dirty pet pushes its death further away
+    pet.setHealth(new HealthStatus(20, 40, 20, 80));
+    long before = pet.ticksUntilDeath();
+    pet.interactWith(Action.CLEAN);
+    assertTrue(pet.ticksUntilDeath() > before);
+  }
+
+  @Test
+  public void testPredictionsWhenDead() {
+    pet.setState(PetState.Dead);
+    assertEquals(0, pet.ticksUntilDeath());
+    assertEquals(Pet.NEVER, pet.ticksUntilSad());
+  }
+
+  @Test
+  public void testSnapshot() {
+    pet.interactWith(Action.SLEEP);
+    PetSnapshot snapshot = PetSnapshot.of(pet);
+    assertEquals(pet.getHealth().toString(), snapshot.getHealth().toString());
+    assertEquals(pet.getMood(), snapshot.mood());
+    assertTrue(snapshot.isSleeping());
+    assertFalse(snapshot.isDead());
+    // later changes to the pet do not show in the snapshot
+    String before = pet.getHealth().toString();
+    pet.step();
+    assertEquals(before, snapshot.getHealth().toString());
+    assertFalse(before.equals(pet.getHealth().toString()));
+  }
+
+  @Test
+  public void testHealthViewIsReusedUntilNeedsChange() {
+    Pet pet = new Pet();
+    HealthStatus view = pet.getHealth();
+    assertSame(view, pet.getHealth());
+    pet.step();
+    HealthStatus stepped = pet.getHealth();
+    assertEquals(5, stepped.getHunger());
+    assertEquals(95, stepped.getHygiene());
+    assertSame(stepped, pet.getHealth());
+  }
+}
@@ -0,0 +1,112 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the PopulationIndex and PetQuery classes.
+ * Checks the answers of the bitmaps against a scan of the population.
+ */
+public class PopulationIndexTest {
+  private static final int SIZE = 3000;
+  private PetPopulation population;
+  private PopulationIndex index;
+
+  /**
+   * Sets up an indexed population of pets with random needs, moods and states.
+   */
+  @Before
+  public void setUp() {
+    Random random = new Random(8);
+    population = new PetPopulation(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      population.setHealth(i, new HealthStatus(random.nextInt(101), random.nextInt(101),
+          random.nextInt(101), random.nextInt(101)));
+      population.setMood(i, random.nextBoolean() ? MoodEnum.HAPPY : MoodEnum.SAD);
+      if (random.nextInt(4) == 0) {
+        population.setState(i, PetState.Sleeping);
+      }
+    }
+    index = new PopulationIndex(SIZE);
+    population.trackIndex(index);
+  }
+
+  private void assertQuery(PetQuery query, IntPredicate expected) {
+    BitSet matches = index.evaluate(query);
+    for (int i = 0; i < SIZE; i++) {
+      assertEquals("pet " + i, expected.test(i), matches.get(i));
+    }
+    assertEquals(matches.cardinality(), index.count(query));
+  }
+
+  private void assertQueries() {
+    assertQuery(PetQuery.atLeast(Need.HUNGER, 50).and(PetQuery.atMost(Need.SLEEP, 50)),
+        i -> population.getHunger(i) >= 50 && population.getSleep(i) <= 50);
+    assertQuery(PetQuery.atMost(Need.HYGIENE, 20).or(PetQuery.atLeast(Need.SOCIAL, 90)),
+        i -> population.getHygiene(i) <= 20 || population.getSocial(i) >= 90);
+    assertQuery(PetQuery.mood(MoodEnum.SAD).and(PetQuery.state(PetState.Dead).not()),
+        i -> population.getMood(i) == MoodEnum.SAD && !population.isDead(i));
+    assertQuery(PetQuery.atLeast(Need.HUNGER, 100).or(PetQuery.atMost(Need.SLEEP, 0)),
+        i -> population.getHunger(i) >= 100 || population.getSleep(i) <= 0);
+    assertQuery(PetQuery.state(PetState.Sleeping), population::isSleeping);
+  }
+
+  @Test
+  public void testMatchesScanWhileStepping() {
+    assertQueries();
+    for (int tick = 0; tick < 20; tick++) {
+      population.stepAll();
+      assertQueries();
+    }
+  }
+
+  @Test
+  public void testMatchesScanAfterParallelTicks() {
+    try (PopulationTicker ticker = new PopulationTicker(3, 100)) {
+      for (int tick = 0; tick < 15; tick++) {
+        ticker.tick(population);
+      }
+    }
+    assertQueries();
+  }
+
+  @Test
+  public void testMatchesScanAfterActions() {
+    Random random = new Random(4);
+    for (int round = 0; round < 5; round++) {
+      int[] petIds = new int[SIZE];
+      byte[] actions = new byte[SIZE];
+      for (int k = 0; k < SIZE; k++) {
+        petIds[k] = random.nextInt(SIZE);
+        actions[k] = (byte) random.nextInt(Action.values().length);
+      }
+      population.applyActions(petIds, actions);
+      assertQueries();
+    }
+    population.setHealth(7, new HealthStatus(100, 0, 0, 0));
+    population.setState(7, PetState.Dead);
+    assertQueries();
+  }
+
+  @Test
+  public void testEveryThreshold() {
+    for (int threshold = -1; threshold <= 101; threshold++) {
+      int t = threshold;
+      assertQuery(PetQuery.atLeast(Need.HYGIENE, t), i -> population.getHygiene(i) >= t);
+      assertQuery(PetQuery.atMost(Need.SOCIAL, t), i -> population.getSocial(i) <= t);
+    }
+  }
+
+  @Test
+  public void testRanges() {
+    assertEquals(SIZE, index.count(PetQuery.atLeast(Need.HUNGER, 0)));
+    assertEquals(0, index.count(PetQuery.atLeast(Need.HUNGER, 101)));
+    assertEquals(SIZE, index.count(PetQuery.all()));
+    assertEquals(0, index.count(PetQuery.all().not()));
+  }
+}
@@ -0,0 +1,174 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for the PopulationSnapshot class.
+ */
+public class PopulationSnapshotTest {
+  private static final int SIZE = 1000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+  private Path path;
+  private Pet[] pets;
+  private PetPopulation population;
+
+  /**
+   * Sets up a population of pets with random needs, moods, states and streaks.
+   */
+  @Before
+  public void setUp() {
+    path = folder.getRoot().toPath().resolve("pets.snapshot");
+    Random random = new Random(9);
+    Action[] actions = Action.values();
+    pets = new Pet[SIZE];
+    population = new PetPopulation(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      Pet pet = new Pet();
+      pet.setHealth(new HealthStatus(random.nextInt(101), random.nextInt(101),
+          random.nextInt(101), random.nextInt(101)));
+      for (int event = random.nextInt(6); event > 0; event--) {
+        pet.interactWith(actions[random.nextInt(actions.length)]);
+      }
+      pets[i] = pet;
+      population.copyFrom(i, pet);
+    }
+  }
+
+  private static void assertSamePet(Pet expected, Pet actual) {
+    assertEquals(expected.getHealth().toString(), actual.getHealth().toString());
+    assertEquals(expected.getMood(), actual.getMood());
+    assertEquals(expected.getState(), actual.getState());
+    assertEquals(expected.getHungerLowStreak(), actual.getHungerLowStreak());
+    assertEquals(expected.isJustWokeUp(), actual.isJustWokeUp());
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    PopulationSnapshot.write(path, population);
+    try (PopulationSnapshot snapshot = PopulationSnapshot.open(path)) {
+      assertEquals(SIZE, snapshot.size());
+      for (int i = 0; i < SIZE; i++) {
+        assertSamePet(pets[i], snapshot.toPet(i));
+        assertEquals(pets[i].getHealth().toString(), snapshot.getHealth(i).toString());
+      }
+      PetPopulation restored = snapshot.toPopulation();
+      for (int i = 0; i < SIZE; i++) {
+        assertEquals(population.getHealth(i).toString(), restored.getHealth(i).toString());
+        assertEquals(population.getMood(i), restored.getMood(i));
+        assertEquals(population.getState(i), restored.getState(i));
+        assertEquals(population.getHungerLowStreak(i), restored.getHungerLowStreak(i));
+        assertEquals(population.isJustWokeUp(i), restored.isJustWokeUp(i));
+      }
+    }
+  }
+
+  @Test
+  public void testRestoredPetsKeepStepping() throws IOException {
+    PopulationSnapshot.write(path, population);
+    try (PopulationSnapshot snapshot = PopulationSnapshot.open(path)) {
+      for (int i = 0; i < SIZE; i++) {
+        Pet restored = snapshot.toPet(i);
+        for (int tick = 0; tick < 5; tick++) {
+          restored.step();
+          pets[i].step();
+        }
+        assertSamePet(pets[i], restored);
+      }
+    }
+  }
+
+  @Test
+  public void testLoadRange() throws IOException {
+    PopulationSnapshot.write(path, population);
+    PetPopulation partial = new PetPopulation(SIZE);
+    try (PopulationSnapshot snapshot = PopulationSnapshot.open(path)) {
+      snapshot.loadInto(partial, 100, 200);
+    }
+    assertEquals(population.getHealth(150).toString(), partial.getHealth(150).toString());
+    assertEquals(new PetPopulation(1).getHealth(0).toString(), partial.getHealth(99).toString());
+  }
+
+  // Saves a population where every third pet is a cat, in the states of the pets
+  private SpeciesProfile writeMixed() throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("name", "cat");
+    properties.setProperty("decay.happy", "9,-9,9,-9");
+    SpeciesProfile cat = SpeciesProfile.fromProperties(properties);
+    population = new PetPopulation(SIZE, SpeciesProfile.DEFAULT, cat);
+    for (int i = 0; i < SIZE; i++) {
+      population.copyFrom(i, pets[i]);
+      if (i % 3 == 0) {
+        population.setSpecies(i, cat);
+      }
+    }
+    PopulationSnapshot.write(path, population);
+    return cat;
+  }
+
+  @Test
+  public void testSpeciesRoundTrip() throws IOException {
+    SpeciesProfile cat = writeMixed();
+    try (PopulationSnapshot snapshot = PopulationSnapshot.open(path)) {
+      assertEquals(List.of("default", "cat"), snapshot.getSpeciesNames());
+      assertEquals("cat", snapshot.getSpeciesName(3));
+      assertEquals("default", snapshot.getSpeciesName(4));
+      // species are matched by name, whatever order they are given in
+      PetPopulation restored = snapshot.toPopulation(cat, SpeciesProfile.DEFAULT);
+      population.stepAll();
+      restored.stepAll();
+      for (int i = 0; i < SIZE; i++) {
+        assertSame(population.getSpecies(i), restored.getSpecies(i));
+        assertEquals(population.getHealth(i).toString(), restored.getHealth(i).toString());
+        assertEquals(population.getMood(i), restored.getMood(i));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsMissingSpecies() throws IOException {
+    writeMixed();
+    try (PopulationSnapshot snapshot = PopulationSnapshot.open(path)) {
+      snapshot.toPopulation();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsDuplicateSpeciesNames() throws IOException {
+    SpeciesProfile unnamed = SpeciesProfile.fromProperties(new Properties());
+    PopulationSnapshot.write(path, new PetPopulation(1, SpeciesProfile.DEFAULT, unnamed));
+  }
+
+  @Test
+  public void testEmptyPopulation() throws IOException {
+    PopulationSnapshot.write(path, new PetPopulation(0));
+    try (PopulationSnapshot snapshot = PopulationSnapshot.open(path)) {
+      assertEquals(0, snapshot.size());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsOtherVersions() throws IOException {
+    PopulationSnapshot.write(path, population);
+    byte[] bytes = Files.readAllBytes(path);
+    ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+        .putShort(4, (short) (PopulationSnapshot.VERSION + 1));
+    Files.write(path, bytes);
+    PopulationSnapshot.open(path).close();
+  }
+}
@@ -0,0 +1,95 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the PopulationTicker class.
+ * Checks that parallel ticks end in the same states as sequential ones.
+ */
+public class PopulationTickerTest {
+  private static final int SIZE = 10_000;
+  private PopulationTicker ticker;
+
+  @Before
+  public void setUp() {
+    ticker = new PopulationTicker(4, 256);
+  }
+
+  @After
+  public void tearDown() {
+    ticker.close();
+  }
+
+  private static Pet randomPet(Random random) {
+    Pet pet = new Pet();
+    pet.setHealth(new HealthStatus(random.nextInt(101), random.nextInt(101),
+        random.nextInt(101), random.nextInt(101)));
+    pet.setMood(random.nextBoolean() ? MoodEnum.HAPPY : MoodEnum.SAD);
+    if (random.nextInt(3) == 0) {
+      pet.setState(PetState.Sleeping);
+    }
+    return pet;
+  }
+
+  @Test
+  public void testPopulationTickMatchesSequentialRun() {
+    Random random = new Random(1);
+    PetPopulation parallel = new PetPopulation(SIZE);
+    PetPopulation sequential = new PetPopulation(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      Pet pet = randomPet(random);
+      parallel.copyFrom(i, pet);
+      sequential.copyFrom(i, pet);
+    }
+    for (int tick = 0; tick < 25; tick++) {
+      ticker.tick(parallel);
+      sequential.stepAll();
+    }
+    for (int i = 0; i < SIZE; i++) {
+      assertEquals(sequential.getHealth(i).toString(), parallel.getHealth(i).toString());
+      assertEquals(sequential.getMood(i), parallel.getMood(i));
+      assertEquals(sequential.getState(i), parallel.getState(i));
+    }
+  }
+
+  @Test
+  public void testPetArrayTickMatchesSequentialRun() {
+    Random random = new Random(2);
+    Pet[] parallel = new Pet[SIZE + 17];
+    Pet[] sequential = new Pet[SIZE + 17];
+    for (int i = 0; i < parallel.length; i++) {
+      parallel[i] = randomPet(random);
+      sequential[i] = new Pet();
+      sequential[i].setHealth(parallel[i].getHealth());
+      sequential[i].setMood(parallel[i].getMood());
+      sequential[i].setState(parallel[i].getState());
+    }
+    for (int tick = 0; tick < 25; tick++) {
+      ticker.tick(parallel);
+      for (Pet pet : sequential) {
+        pet.step();
+      }
+    }
+    for (int i = 0; i < parallel.length; i++) {
+      assertEquals(sequential[i].getHealth().toString(), parallel[i].getHealth().toString());
+      assertEquals(sequential[i].getMood(), parallel[i].getMood());
+      assertEquals(sequential[i].getState(), parallel[i].getState());
+    }
+  }
+
+  @Test
+  public void testConfiguration() {
+    assertEquals(4, ticker.getParallelism());
+    assertEquals(256, ticker.getChunkSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidChunkSize() {
+    new PopulationTicker(1, 0);
+  }
+}
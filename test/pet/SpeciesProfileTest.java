@@ -0,0 +1,368 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the SpeciesProfile class.
+ * A population of several species steps through the compiled tables, so
+ * each of its pets must match a population of its species alone.
+ */
+public class SpeciesProfileTest {
+  private static final int SIZE = 1000;
+  private SpeciesProfile cat;
+  private PetPopulation mixed;
+  private PetPopulation cats;
+  private PetPopulation plain;
+
+  private static Properties catProperties() {
+    Properties properties = new Properties();
+    properties.setProperty("name", "cat");
+    properties.setProperty("limits.hunger", "0,80");
+    properties.setProperty("decay.happy", "3,-4,6,-2");
+    properties.setProperty("decay.sad", "7,-8,9,-6");
+    properties.setProperty("decay.sleeping", "2,-3,1,8");
+    properties.setProperty("boost.happy", "-20,12,-10,18");
+    properties.setProperty("boost.sad", "-8,6,-14,9");
+    properties.setProperty("neglect.penalty", "7");
+    properties.setProperty("neglect.ratio", "0.4");
+    properties.setProperty("sad.ratio", "0.6");
+    properties.setProperty("streak.ratio", "0.3");
+    properties.setProperty("streak.limit", "4");
+    return properties;
+  }
+
+  // A species that gets sick when dirty until cleaned up well, and bored when lonely
+  private static SpeciesProfile moody() {
+    Properties properties = new Properties();
+    properties.setProperty("name", "moody");
+    properties.setProperty("decay.bored", "4,-3,8,-3");
+    properties.setProperty("decay.sick", "6,-2,2,-9");
+    properties.setProperty("boost.sick", "-5,30,-5,5");
+    properties.setProperty("mood.bored", "social>=60");
+    properties.setProperty("mood.sick", "hygiene<=20");
+    properties.setProperty("mood.sick.until", "hygiene>=40");
+    return SpeciesProfile.fromProperties(properties);
+  }
+
+  private static int[] needs(int hunger, int hygiene, int social, int sleep) {
+    return new int[] {hunger, hygiene, social, sleep};
+  }
+
+  /**
+   * Sets up a population where even pets are cats and odd pets are of the
+   * default species, and one population of each species alone, all in the
+   * same random states.
+   */
+  @Before
+  public void setUp() {
+    cat = SpeciesProfile.fromProperties(catProperties());
+    mixed = new PetPopulation(SIZE, SpeciesProfile.DEFAULT, cat);
+    cats = new PetPopulation(SIZE, cat);
+    plain = new PetPopulation(SIZE);
+    Random random = new Random(11);
+    for (int i = 0; i < SIZE; i++) {
+      HealthStatus health = new HealthStatus(random.nextInt(81), random.nextInt(101),
+          random.nextInt(101), random.nextInt(101));
+      MoodEnum mood = random.nextBoolean() ? MoodEnum.HAPPY : MoodEnum.SAD;
+      PetState state = random.nextInt(4) == 0 ? PetState.Sleeping : PetState.Active;
+      if (i % 2 == 0) {
+        mixed.setSpecies(i, cat);
+      }
+      for (PetPopulation population : new PetPopulation[] {mixed, cats, plain}) {
+        population.setHealth(i, health);
+        population.setMood(i, mood);
+        population.setState(i, state);
+      }
+    }
+  }
+
+  private void assertSameAsSingleSpecies() {
+    for (int i = 0; i < SIZE; i++) {
+      PetPopulation single = i % 2 == 0 ? cats : plain;
+      assertSame(i % 2 == 0 ? cat : SpeciesProfile.DEFAULT, mixed.getSpecies(i));
+      assertEquals("pet " + i, single.getHealth(i).toString(), mixed.getHealth(i).toString());
+      assertEquals("pet " + i, single.getMood(i), mixed.getMood(i));
+      assertEquals("pet " + i, single.getState(i), mixed.getState(i));
+      assertEquals("pet " + i, single.isHungryWarning(i), mixed.isHungryWarning(i));
+      assertEquals("pet " + i, single.ticksUntilDeath(i), mixed.ticksUntilDeath(i));
+    }
+  }
+
+  @Test
+  public void testMixedStepsMatchSingleSpecies() {
+    assertSameAsSingleSpecies();
+    for (int tick = 0; tick < 40; tick++) {
+      mixed.stepAll();
+      cats.stepAll();
+      plain.stepAll();
+      assertSameAsSingleSpecies();
+    }
+  }
+
+  @Test
+  public void testMixedActionsMatchSingleSpecies() {
+    Random random = new Random(12);
+    for (int tick = 0; tick < 20; tick++) {
+      int[] petIds = new int[SIZE];
+      byte[] actions = new byte[SIZE];
+      for (int k = 0; k < SIZE; k++) {
+        petIds[k] = random.nextInt(SIZE);
+        actions[k] = (byte) random.nextInt(Action.values().length);
+      }
+      for (PetPopulation population : new PetPopulation[] {mixed, cats, plain}) {
+        population.applyActions(petIds, actions);
+        population.stepAll();
+      }
+      assertSameAsSingleSpecies();
+    }
+  }
+
+  @Test
+  public void testPredictionsFollowSpecies() {
+    long[] predicted = new long[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      predicted[i] = mixed.ticksUntilDeath(i);
+    }
+    for (int tick = 1; tick <= 200; tick++) {
+      mixed.stepAll();
+      for (int i = 0; i < SIZE; i++) {
+        if (predicted[i] == tick) {
+          assertEquals("pet " + i, PetState.Dead, mixed.getState(i));
+        } else if (predicted[i] > tick) {
+          assertEquals("pet " + i, predicted[i] - tick, mixed.ticksUntilDeath(i));
+        }
+      }
+    }
+  }
+
+  // A species whose hunger rises while happy and falls while sad, so its pets never die
+  private static SpeciesProfile seesaw() {
+    Properties properties = new Properties();
+    properties.setProperty("name", "seesaw");
+    properties.setProperty("decay.happy", "5,0,0,0");
+    properties.setProperty("decay.sad", "-5,0,0,0");
+    return SpeciesProfile.fromProperties(properties);
+  }
+
+  @Test(timeout = 5000)
+  public void testOscillatingPetsNeverDie() {
+    PetPopulation population = new PetPopulation(1, seesaw());
+    population.setHealth(0, new HealthStatus(45, 100, 0, 100));
+    assertEquals(Pet.NEVER, population.ticksUntilDeath(0));
+    for (int tick = 0; tick < 500; tick++) {
+      population.stepAll();
+    }
+    assertEquals(PetState.Active, population.getState(0));
+    assertEquals(Pet.NEVER, population.ticksUntilDeath(0));
+  }
+
+  @Test(timeout = 5000)
+  public void testPetsCyclingThroughOtherMoodsNeverGetSad() {
+    // bored past 40 hunger, which falls while bored, and no streak ever makes a pet sad
+    Properties properties = new Properties();
+    properties.setProperty("name", "fickle");
+    properties.setProperty("decay.happy", "5,0,0,0");
+    properties.setProperty("decay.bored", "-5,0,0,0");
+    properties.setProperty("mood.bored", "hunger>=40");
+    properties.setProperty("streak.ratio", "1");
+    SpeciesProfile fickle = SpeciesProfile.fromProperties(properties);
+    PetTimeline timeline = new PetTimeline(fickle, needs(30, 100, 0, 100), MoodEnum.HAPPY,
+        PetState.Active, 0);
+    assertEquals(Pet.NEVER, timeline.ticksUntilSad());
+    timeline = new PetTimeline(fickle, needs(30, 100, 0, 100), MoodEnum.HAPPY,
+        PetState.Active, 0);
+    // 35, 40 and bored, then 35 and happy again
+    timeline.advance(2);
+    assertEquals(MoodEnum.BORED, timeline.getMood());
+    timeline.advance(1);
+    assertEquals(MoodEnum.HAPPY, timeline.getMood());
+  }
+
+  @Test
+  public void testMoodTransitions() {
+    SpeciesProfile moody = moody();
+    assertEquals(MoodEnum.HAPPY, moody.nextMood(MoodEnum.HAPPY, needs(0, 100, 0, 100), 0));
+    assertEquals(MoodEnum.SAD, moody.nextMood(MoodEnum.HAPPY, needs(0, 30, 0, 100), 0));
+    assertEquals(MoodEnum.SAD, moody.nextMood(MoodEnum.BORED, needs(0, 100, 0, 100), 3));
+    assertEquals(MoodEnum.BORED, moody.nextMood(MoodEnum.HAPPY, needs(0, 100, 60, 100), 0));
+    // sick wins over bored, and lasts until hygiene is back to 40
+    assertEquals(MoodEnum.SICK, moody.nextMood(MoodEnum.HAPPY, needs(0, 20, 60, 100), 0));
+    assertEquals(MoodEnum.SICK, moody.nextMood(MoodEnum.SICK, needs(0, 39, 0, 100), 0));
+    assertEquals(MoodEnum.HAPPY, moody.nextMood(MoodEnum.SICK, needs(0, 60, 0, 100), 0));
+    assertEquals(MoodEnum.BORED, moody.nextMood(MoodEnum.SICK, needs(0, 40, 70, 100), 0));
+    // the default species is only ever happy or sad
+    for (MoodEnum mood : MoodEnum.values()) {
+      assertEquals(MoodEnum.HAPPY,
+          SpeciesProfile.DEFAULT.nextMood(mood, needs(0, 100, 0, 100), 0));
+      assertEquals(MoodEnum.SAD,
+          SpeciesProfile.DEFAULT.nextMood(mood, needs(0, 100, 0, 100), Pet.HUNGER_STREAK_LIMIT));
+    }
+    // the table has a row of buckets per mood, growing with the moods that can be entered
+    // and not with the number of threshold checks
+    assertEquals(4 * 3, moody.buckets);
+    assertEquals(MoodEnum.values().length * moody.buckets, moody.transitions.length);
+    assertEquals(4, SpeciesProfile.DEFAULT.buckets);
+  }
+
+  @Test
+  public void testMoodyStepsMatchTimeline() {
+    SpeciesProfile moody = moody();
+    PetPopulation population = new PetPopulation(SIZE, moody);
+    PetTimeline[] timelines = new PetTimeline[SIZE];
+    long[] predicted = new long[SIZE];
+    Random random = new Random(13);
+    for (int i = 0; i < SIZE; i++) {
+      MoodEnum mood = MoodEnum.values()[random.nextInt(MoodEnum.values().length)];
+      PetState state = random.nextInt(4) == 0 ? PetState.Sleeping : PetState.Active;
+      int hunger = random.nextInt(101);
+      int hygiene = random.nextInt(101);
+      int social = random.nextInt(101);
+      int sleep = random.nextInt(101);
+      population.setHealth(i, new HealthStatus(hunger, hygiene, social, sleep));
+      population.setMood(i, mood);
+      population.setState(i, state);
+      timelines[i] = new PetTimeline(moody, new int[] {hunger, hygiene, social, sleep}, mood, state,
+          0);
+      predicted[i] = population.ticksUntilDeath(i);
+    }
+    int[] moods = new int[MoodEnum.values().length];
+    for (int tick = 1; tick <= 60; tick++) {
+      population.stepAll();
+      for (int i = 0; i < SIZE; i++) {
+        timelines[i].step();
+        assertEquals("pet " + i, timelines[i].getNeed(Need.HYGIENE.ordinal()),
+            population.getHygiene(i));
+        assertEquals("pet " + i, timelines[i].getNeed(Need.SOCIAL.ordinal()),
+            population.getSocial(i));
+        assertEquals("pet " + i, timelines[i].getMood(), population.getMood(i));
+        assertEquals("pet " + i, timelines[i].getState(), population.getState(i));
+        if (predicted[i] >= tick) {
+          assertEquals("pet " + i, predicted[i] - tick, population.ticksUntilDeath(i));
+        }
+        moods[population.getMood(i).ordinal()]++;
+      }
+    }
+    for (MoodEnum mood : MoodEnum.values()) {
+      if (mood != MoodEnum.SLEEPY) {
+        assertTrue("no " + mood + " pets", moods[mood.ordinal()] > 0);
+      }
+    }
+  }
+
+  @Test
+  public void testMoodyMixedMatchesSingleSpecies() {
+    SpeciesProfile moody = moody();
+    PetPopulation mixedMoody = new PetPopulation(SIZE, SpeciesProfile.DEFAULT, moody);
+    PetPopulation moodies = new PetPopulation(SIZE, moody);
+    Random random = new Random(14);
+    for (int i = 0; i < SIZE; i++) {
+      HealthStatus health = new HealthStatus(random.nextInt(101), random.nextInt(101),
+          random.nextInt(101), random.nextInt(101));
+      mixedMoody.setSpecies(i, moody);
+      for (PetPopulation population : new PetPopulation[] {mixedMoody, moodies}) {
+        population.setHealth(i, health);
+      }
+    }
+    for (int tick = 0; tick < 20; tick++) {
+      int[] petIds = new int[SIZE];
+      byte[] actions = new byte[SIZE];
+      for (int k = 0; k < SIZE; k++) {
+        petIds[k] = random.nextInt(SIZE);
+        actions[k] = (byte) random.nextInt(Action.values().length);
+      }
+      for (PetPopulation population : new PetPopulation[] {mixedMoody, moodies}) {
+        population.applyActions(petIds, actions);
+        population.stepAll();
+      }
+      for (int i = 0; i < SIZE; i++) {
+        assertEquals("pet " + i, moodies.getHealth(i).toString(),
+            mixedMoody.getHealth(i).toString());
+        assertEquals("pet " + i, moodies.getMood(i), mixedMoody.getMood(i));
+      }
+    }
+  }
+
+  @Test
+  public void testDefaultMatchesPet() {
+    Pet pet = new Pet();
+    SpeciesProfile profile = SpeciesProfile.DEFAULT;
+    assertEquals(pet.getHungerLimits(), profile.getLimits(Need.HUNGER));
+    assertEquals(pet.getSleepLimits(), profile.getLimits(Need.SLEEP));
+    assertEquals(Pet.HUNGER_STREAK_LIMIT, profile.compiled.streakLimit());
+    assertEquals(50, profile.compiled.bounds()[1 + Need.HUNGER.ordinal()]);
+    assertEquals(25, profile.compiled.streakFrom());
+    assertEquals(50, profile.compiled.neglectBelow());
+  }
+
+  @Test
+  public void testNeglectThresholdOfOddMaximum() {
+    // hunger below max / 2 in integers, as the original pet checked it
+    Properties properties = new Properties();
+    properties.setProperty("limits.hunger", "0,101");
+    SpeciesProfile profile = SpeciesProfile.fromProperties(properties);
+    assertEquals(101 / 2, profile.compiled.neglectBelow());
+    PetPopulation population = new PetPopulation(2, profile);
+    for (int i = 0; i < 2; i++) {
+      population.setHealth(i, new HealthStatus(49 + i, 100, 0, 100));
+      population.setMood(i, MoodEnum.SAD);
+    }
+    population.applyActions(new int[] {0, 1}, new byte[] {(byte) Action.PLAY.ordinal(),
+        (byte) Action.PLAY.ordinal()});
+    // only the pet below 50 feels neglected and gets hungrier
+    assertEquals(49 + SadMood.NEGLECT_PENALTY, population.getHealth(0).getHunger());
+    assertEquals(50, population.getHealth(1).getHunger());
+  }
+
+  @Test
+  public void testLoad() throws IOException {
+    Path path = Files.createTempFile("species", ".properties");
+    try {
+      Files.write(path, "name=Owl\nlimits.social = 0, 60\nstreak.limit=5\n"
+          .getBytes(StandardCharsets.UTF_8));
+      SpeciesProfile owl = SpeciesProfile.load(path);
+      assertEquals("Owl", owl.getName());
+      assertEquals(new NeedLimits(0, 60), owl.getLimits(Need.SOCIAL));
+      assertEquals(NeedConfig.HUNGER, owl.getLimits(Need.HUNGER));
+      assertEquals(5, owl.compiled.streakLimit());
+      assertEquals(30, owl.compiled.bounds()[1 + Need.SOCIAL.ordinal()]);
+      assertEquals(60, owl.compiled.deadly()[Need.SOCIAL.ordinal()]);
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testRejectsInvalidProperties() {
+    String[][] invalid = {{"decay.hapy", "1,1,1,1"}, {"decay.happy", "1,1,1"},
+        {"boost.sad", "1,x,1,1"}, {"limits.sleep", "10,10"}, {"sad.ratio", "1.5"},
+        {"streak.limit", "0"}, {"limits.hunger", "0,40000"}, {"mood.sick", "hygiene<20"},
+        {"mood.happy", "hunger>=10"}, {"mood.bored", "fur>=3"}, {"mood.sad.until", "sleep>=9"}};
+    for (String[] entry : invalid) {
+      Properties properties = new Properties();
+      properties.setProperty(entry[0], entry[1]);
+      try {
+        SpeciesProfile.fromProperties(properties);
+        fail("Accepted " + entry[0] + "=" + entry[1]);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsSpeciesOfAnotherPopulation() {
+    plain.setSpecies(0, cat);
+  }
+}